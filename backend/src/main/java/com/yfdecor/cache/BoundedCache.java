@@ -0,0 +1,121 @@
+
+package com.yfdecor.cache;
+
+import com.yfdecor.dto.response.CacheStatsResponse;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Size-bounded LRU map with hit/miss/eviction counters and an optional expire-after-write
+ * bound. Critical sections are a single map operation, so one monitor is cheaper than
+ * striping for the sizes we hold.
+ */
+public class BoundedCache<K, V> {
+
+	private final String name;
+	private final int maxSize;
+	private final long ttlNanos;
+	private final LinkedHashMap<K, Entry<V>> entries;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	public BoundedCache(String name, int maxSize) {
+		this(name, maxSize, null);
+	}
+
+	/**
+	 * With a {@code ttl}, entries are treated as absent once that long has passed since they
+	 * were written; null keeps them until evicted or removed.
+	 */
+	public BoundedCache(String name, int maxSize, Duration ttl) {
+		this.name = name;
+		this.maxSize = maxSize;
+		this.ttlNanos = ttl == null ? Long.MAX_VALUE : ttl.toNanos();
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+				if (size() > BoundedCache.this.maxSize) {
+					evictions.increment();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	public V get(K key) {
+		V value = null;
+		synchronized (entries) {
+			Entry<V> entry = entries.get(key);
+			if (entry != null) {
+				if (System.nanoTime() - entry.writtenAt < ttlNanos) {
+					value = entry.value;
+				} else {
+					entries.remove(key);
+					evictions.increment();
+				}
+			}
+		}
+		if (value == null) {
+			misses.increment();
+		} else {
+			hits.increment();
+		}
+		return value;
+	}
+
+	public void put(K key, V value) {
+		synchronized (entries) {
+			entries.put(key, new Entry<>(value, System.nanoTime()));
+		}
+	}
+
+	public V remove(K key) {
+		synchronized (entries) {
+			Entry<V> removed = entries.remove(key);
+			return removed == null ? null : removed.value;
+		}
+	}
+
+	public void removeIf(Predicate<V> predicate) {
+		synchronized (entries) {
+			entries.values().removeIf(entry -> predicate.test(entry.value));
+		}
+	}
+
+	public void clear() {
+		synchronized (entries) {
+			entries.clear();
+		}
+	}
+
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	public CacheStatsResponse stats() {
+		long hitCount = hits.sum();
+		long missCount = misses.sum();
+		long requests = hitCount + missCount;
+		return CacheStatsResponse.builder()
+				.name(name)
+				.size(size())
+				.maxSize(maxSize)
+				.hits(hitCount)
+				.misses(missCount)
+				.evictions(evictions.sum())
+				.hitRate(requests == 0 ? 0.0 : (double) hitCount / requests)
+				.build();
+	}
+
+	private record Entry<V>(V value, long writtenAt) {
+	}
+}
@@ -0,0 +1,63 @@
+package com.yfdecor.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET handling for catalog endpoints. The If-None-Match check runs against
+ * {@link CatalogVersion} before the body supplier is invoked, so a revalidation that ends
+ * in 304 never loads the body; the version itself only goes to the database when it is due
+ * for a refresh.
+ */
+@Component
+public class CatalogHttpCache {
+
+	private final CatalogVersion catalogVersion;
+	private final String productDirectives;
+	private final String productListDirectives;
+	private final String categoryDirectives;
+
+	public CatalogHttpCache(CatalogVersion catalogVersion,
+			@Value("${catalog.http.cache.product:public, max-age=30}") String productDirectives,
+			@Value("${catalog.http.cache.product-list:public, max-age=30}") String productListDirectives,
+			@Value("${catalog.http.cache.category:public, max-age=300}") String categoryDirectives) {
+		this.catalogVersion = catalogVersion;
+		this.productDirectives = productDirectives;
+		this.productListDirectives = productListDirectives;
+		this.categoryDirectives = categoryDirectives;
+	}
+
+	public <T> ResponseEntity<T> product(WebRequest request, Supplier<T> body) {
+		return respond(request, productDirectives, body);
+	}
+
+	public <T> ResponseEntity<T> productList(WebRequest request, Supplier<T> body) {
+		return respond(request, productListDirectives, body);
+	}
+
+	public <T> ResponseEntity<T> category(WebRequest request, Supplier<T> body) {
+		return respond(request, categoryDirectives, body);
+	}
+
+	private <T> ResponseEntity<T> respond(WebRequest request, String directives, Supplier<T> body) {
+		// Read the tag before loading: if the catalog changes in between, the client holds an
+		// older tag for newer data and simply refetches next time.
+		String etag = catalogVersion.etag();
+		if (request.checkNotModified(etag)) {
+			// checkNotModified has already set the status and the ETag header.
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+					.header(HttpHeaders.CACHE_CONTROL, directives)
+					.build();
+		}
+		return ResponseEntity.ok()
+				.eTag(etag)
+				.header(HttpHeaders.CACHE_CONTROL, directives)
+				.body(body.get());
+	}
+}
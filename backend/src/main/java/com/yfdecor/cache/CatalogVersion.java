@@ -0,0 +1,98 @@
+package com.yfdecor.cache;
+
+import com.yfdecor.event.CatalogChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Version of the catalog, used as the ETag of catalog responses. It is derived from the
+ * products table itself (row count and latest {@code updated_at}, read on the primary), so
+ * every instance, and every restart, hands out the same tag for the same data.
+ *
+ * The version is re-read after each local {@link CatalogChangedEvent}, once the caches have
+ * been cleared, and otherwise at most every {@code catalog.http.version-refresh}. When that
+ * periodic read finds the catalog moved by another instance, the rows changed since the last
+ * read are published as a {@link CatalogChangedEvent} first, so the new tag is never handed
+ * out alongside data this instance still holds from before the change.
+ */
+@Slf4j
+@Component
+public class CatalogVersion {
+
+	private static final String VERSION = "SELECT COUNT(*), MAX(updated_at) FROM products";
+	// Served by idx_products_updated_at_id
+	private static final String CHANGED_SINCE = "SELECT id FROM products WHERE updated_at >= ?";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final ApplicationEventPublisher eventPublisher;
+	private final long refreshNanos;
+	private volatile Version version;
+
+	public CatalogVersion(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher,
+			@Value("${catalog.http.version-refresh:PT5S}") Duration refresh) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.eventPublisher = eventPublisher;
+		this.refreshNanos = refresh.toNanos();
+	}
+
+	public String etag() {
+		Version current = version;
+		if (current == null || System.nanoTime() - current.readAt() > refreshNanos) {
+			current = refresh();
+		}
+		return current.etag();
+	}
+
+	@Order(Ordered.LOWEST_PRECEDENCE)
+	@TransactionalEventListener(fallbackExecution = true)
+	public synchronized void onCatalogChanged(CatalogChangedEvent event) {
+		version = read();
+	}
+
+	private synchronized Version refresh() {
+		Version previous = version;
+		if (previous != null && System.nanoTime() - previous.readAt() <= refreshNanos) {
+			return previous;
+		}
+		Version next = read();
+		if (previous == null || next.etag().equals(previous.etag())) {
+			version = next;
+			return next;
+		}
+		// Moved by another instance: let the local caches catch up, which re-reads the version.
+		CatalogChangedEvent event = next.count() < previous.count() || previous.updatedAt() == null
+				? CatalogChangedEvent.all()
+				: CatalogChangedEvent.products(changedSince(previous.updatedAt()));
+		log.debug("Catalog changed elsewhere ({} -> {}), refreshing local caches", previous.etag(), next.etag());
+		eventPublisher.publishEvent(event);
+		return version;
+	}
+
+	private List<Long> changedSince(Timestamp updatedAt) {
+		return jdbcTemplate.queryForList(CHANGED_SINCE, Long.class, updatedAt);
+	}
+
+	private Version read() {
+		return jdbcTemplate.queryForObject(VERSION, (rs, rowNum) ->
+				new Version(rs.getLong(1), rs.getTimestamp(2), System.nanoTime()));
+	}
+
+	private record Version(long count, Timestamp updatedAt, long readAt) {
+
+		String etag() {
+			long micros = updatedAt == null ? 0
+					: updatedAt.getTime() / 1000 * 1_000_000 + updatedAt.getNanos() / 1000;
+			return "\"" + Long.toString(micros, 36) + "-" + Long.toString(count, 36) + "\"";
+		}
+	}
+}
@@ -0,0 +1,152 @@
+package com.yfdecor.cache;
+
+import com.yfdecor.dto.response.CategoryResponse;
+import com.yfdecor.event.CatalogChangedEvent;
+import com.yfdecor.model.Category;
+import com.yfdecor.repository.CategoryRepository;
+import com.yfdecor.repository.ProductRepository;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Categories with their product and in-stock counts, served from an immutable snapshot that
+ * readers take without locking. The snapshot is built once from the database; after that a
+ * product change only re-reads the changed products' category and stock and moves the
+ * counts by the difference, then publishes a fresh snapshot. A full refresh reloads
+ * everything, including the categories themselves.
+ */
+@Component
+public class CategoryCatalogCache {
+
+	private final CategoryRepository categoryRepository;
+	private final ProductRepository productRepository;
+
+	/** Guarded by this; the counts are derived from it. */
+	private final Map<Long, ProductStock> products = new HashMap<>();
+	private final Map<Long, int[]> counts = new HashMap<>();
+	private List<CategoryResponse> categories = List.of();
+	private volatile Snapshot snapshot;
+
+	public CategoryCatalogCache(CategoryRepository categoryRepository, ProductRepository productRepository) {
+		this.categoryRepository = categoryRepository;
+		this.productRepository = productRepository;
+	}
+
+	public List<CategoryResponse> getAll() {
+		return snapshot().categories;
+	}
+
+	public Optional<CategoryResponse> getBySlug(String slug) {
+		return Optional.ofNullable(snapshot().bySlug.get(slug));
+	}
+
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	@TransactionalEventListener(fallbackExecution = true)
+	public synchronized void onCatalogChanged(CatalogChangedEvent event) {
+		if (snapshot == null) {
+			return;
+		}
+		if (event.isFullRefresh()) {
+			reload();
+			return;
+		}
+		Map<Long, ProductStock> changed = new HashMap<>();
+		for (ProductStock product : productRepository.findStockByIdIn(event.getProductIds())) {
+			changed.put(product.getProductId(), product);
+		}
+		for (Long productId : event.getProductIds()) {
+			ProductStock previous = products.remove(productId);
+			if (previous != null) {
+				count(previous, -1);
+			}
+			ProductStock current = changed.get(productId);
+			if (current != null) {
+				products.put(productId, current);
+				count(current, 1);
+			}
+		}
+		publish();
+	}
+
+	private Snapshot snapshot() {
+		Snapshot current = snapshot;
+		if (current != null) {
+			return current;
+		}
+		synchronized (this) {
+			if (snapshot == null) {
+				reload();
+			}
+			return snapshot;
+		}
+	}
+
+	private void reload() {
+		List<Category> loaded = categoryRepository.findAll();
+		List<CategoryResponse> base = new ArrayList<>(loaded.size());
+		for (Category category : loaded) {
+			base.add(CategoryResponse.builder()
+					.id(category.getId())
+					.name(category.getName())
+					.slug(category.getSlug())
+					.description(category.getDescription())
+					.imageUrl(category.getImageUrl())
+					.build());
+		}
+		categories = base;
+		products.clear();
+		counts.clear();
+		for (ProductStock product : productRepository.findAllStock()) {
+			products.put(product.getProductId(), product);
+			count(product, 1);
+		}
+		publish();
+	}
+
+	private void count(ProductStock product, int delta) {
+		int[] tally = counts.computeIfAbsent(product.getCategoryId(), id -> new int[2]);
+		tally[0] += delta;
+		if (product.getStock() > 0) {
+			tally[1] += delta;
+		}
+	}
+
+	private void publish() {
+		List<CategoryResponse> withCounts = new ArrayList<>(categories.size());
+		Map<String, CategoryResponse> bySlug = new LinkedHashMap<>();
+		for (CategoryResponse category : categories) {
+			int[] tally = counts.getOrDefault(category.getId(), new int[2]);
+			CategoryResponse response = CategoryResponse.builder()
+					.id(category.getId())
+					.name(category.getName())
+					.slug(category.getSlug())
+					.description(category.getDescription())
+					.imageUrl(category.getImageUrl())
+					.productCount(tally[0])
+					.inStockCount(tally[1])
+					.build();
+			withCounts.add(response);
+			bySlug.put(response.getSlug(), response);
+		}
+		snapshot = new Snapshot(List.copyOf(withCounts), Map.copyOf(bySlug));
+	}
+
+	private static final class Snapshot {
+		private final List<CategoryResponse> categories;
+		private final Map<String, CategoryResponse> bySlug;
+
+		private Snapshot(List<CategoryResponse> categories, Map<String, CategoryResponse> bySlug) {
+			this.categories = categories;
+			this.bySlug = bySlug;
+		}
+	}
+}
@@ -0,0 +1,157 @@
+
+package com.yfdecor.cache;
+
+import com.yfdecor.dto.response.CacheStatsResponse;
+import com.yfdecor.dto.response.ProductResponse;
+import com.yfdecor.event.CatalogChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of {@link ProductResponse} objects keyed by id, slug and listing page.
+ * Entries are dropped after the transaction that changed the product commits; the
+ * generation counter stops a load that raced with an invalidation from re-inserting
+ * the stale value it read. That invalidation is local, so entries also expire
+ * {@code catalog.cache.ttl} after they were loaded, which bounds how long stock and prices
+ * changed by another instance can be served.
+ */
+@Component
+public class ProductCatalogCache {
+
+	private final BoundedCache<Long, ProductResponse> byId;
+	private final BoundedCache<String, Long> slugToId;
+	private final BoundedCache<String, List<ProductResponse>> pages;
+	private final AtomicLong generation = new AtomicLong();
+
+	public ProductCatalogCache(@Value("${catalog.cache.max-products:10000}") int maxProducts,
+			@Value("${catalog.cache.max-pages:1000}") int maxPages,
+			@Value("${catalog.cache.ttl:PT30S}") Duration ttl) {
+		this.byId = new BoundedCache<>("products.byId", maxProducts, ttl);
+		this.slugToId = new BoundedCache<>("products.bySlug", maxProducts, ttl);
+		this.pages = new BoundedCache<>("products.pages", maxPages, ttl);
+	}
+
+	public ProductResponse getById(Long id, Function<Long, ProductResponse> loader) {
+		ProductResponse cached = byId.get(id);
+		if (cached != null) {
+			return cached;
+		}
+		long gen = generation.get();
+		ProductResponse loaded = loader.apply(id);
+		synchronized (this) {
+			if (generation.get() == gen) {
+				byId.put(id, loaded);
+				slugToId.put(loaded.getSlug(), id);
+			}
+		}
+		return loaded;
+	}
+
+	public ProductResponse getBySlug(String slug, Function<String, ProductResponse> loader) {
+		Long id = slugToId.get(slug);
+		if (id != null) {
+			ProductResponse cached = byId.get(id);
+			if (cached != null && slug.equals(cached.getSlug())) {
+				return cached;
+			}
+		}
+		long gen = generation.get();
+		ProductResponse loaded = loader.apply(slug);
+		synchronized (this) {
+			if (generation.get() == gen) {
+				byId.put(loaded.getId(), loaded);
+				slugToId.put(slug, loaded.getId());
+			}
+		}
+		return loaded;
+	}
+
+	/**
+	 * Resolves many ids at once; ids missing from the cache are handed to the loader in one call.
+	 * Ids the loader does not return are simply absent from the result.
+	 */
+	public Map<Long, ProductResponse> getAllById(Collection<Long> ids, Function<List<Long>, List<ProductResponse>> loader) {
+		Map<Long, ProductResponse> found = new HashMap<>();
+		Set<Long> missing = new LinkedHashSet<>();
+		for (Long id : ids) {
+			ProductResponse cached = byId.get(id);
+			if (cached != null) {
+				found.put(id, cached);
+			} else {
+				missing.add(id);
+			}
+		}
+		if (missing.isEmpty()) {
+			return found;
+		}
+		long gen = generation.get();
+		List<ProductResponse> loaded = loader.apply(new ArrayList<>(missing));
+		synchronized (this) {
+			boolean current = generation.get() == gen;
+			for (ProductResponse product : loaded) {
+				found.put(product.getId(), product);
+				if (current) {
+					byId.put(product.getId(), product);
+					slugToId.put(product.getSlug(), product.getId());
+				}
+			}
+		}
+		return found;
+	}
+
+	public List<ProductResponse> getPage(String key, Supplier<List<ProductResponse>> loader) {
+		List<ProductResponse> cached = pages.get(key);
+		if (cached != null) {
+			return cached;
+		}
+		long gen = generation.get();
+		List<ProductResponse> loaded = List.copyOf(loader.get());
+		synchronized (this) {
+			if (generation.get() == gen) {
+				pages.put(key, loaded);
+				for (ProductResponse product : loaded) {
+					byId.put(product.getId(), product);
+				}
+			}
+		}
+		return loaded;
+	}
+
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	@TransactionalEventListener(fallbackExecution = true)
+	public synchronized void onCatalogChanged(CatalogChangedEvent event) {
+		generation.incrementAndGet();
+		if (event.isFullRefresh()) {
+			byId.clear();
+			slugToId.clear();
+		} else {
+			for (Long id : event.getProductIds()) {
+				ProductResponse removed = byId.remove(id);
+				if (removed != null) {
+					slugToId.remove(removed.getSlug());
+				}
+			}
+		}
+		// Any page may contain a changed product or have shifted, so listings are always dropped.
+		pages.clear();
+	}
+
+	public List<CacheStatsResponse> stats() {
+		return List.of(byId.stats(), slugToId.stats(), pages.stats());
+	}
+}
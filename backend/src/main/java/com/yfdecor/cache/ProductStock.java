@@ -0,0 +1,17 @@
+package com.yfdecor.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The slice of a product row that category counts depend on.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductStock {
+	private Long productId;
+	private Long categoryId;
+	private Integer stock;
+}
@@ -0,0 +1,20 @@
+
+package com.yfdecor.cart;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One product in a user's cart. For keyed stores the line id is the product id.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CartLine {
+	private Long id;
+	private Long productId;
+	private Integer quantity;
+}
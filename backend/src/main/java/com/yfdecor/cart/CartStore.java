@@ -0,0 +1,39 @@
+
+package com.yfdecor.cart;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Where cart lines live between browsing and checkout. Selected with {@code cart.store}:
+ * {@code jdbc} (default, the cart_items table), {@code redis} or {@code memory}.
+ */
+public interface CartStore {
+
+	List<CartLine> getLines(Long userId);
+
+	Optional<CartLine> findLine(Long userId, Long lineId);
+
+	Optional<CartLine> findByProduct(Long userId, Long productId);
+
+	/**
+	 * Inserts or overwrites the line for this product.
+	 */
+	CartLine setQuantity(Long userId, Long productId, int quantity);
+
+	/**
+	 * Inserts or overwrites several lines in one round trip.
+	 */
+	void setQuantities(Long userId, Map<Long, Integer> quantities);
+
+	void removeLine(Long userId, Long lineId);
+
+	/**
+	 * Removes the lines for these products in one round trip; absent products are ignored.
+	 */
+	void removeProducts(Long userId, Collection<Long> productIds);
+
+	void clear(Long userId);
+}
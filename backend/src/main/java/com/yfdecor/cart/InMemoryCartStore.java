@@ -0,0 +1,105 @@
+
+package com.yfdecor.cart;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-local stand-in for {@link RedisCartStore} with the same per-user hash and idle
+ * expiry semantics. Suitable for tests and single-instance deployments only.
+ */
+@Component
+@ConditionalOnProperty(name = "cart.store", havingValue = "memory")
+public class InMemoryCartStore implements CartStore {
+
+	private final ConcurrentHashMap<Long, UserCart> carts = new ConcurrentHashMap<>();
+	private final long ttlMillis;
+
+	public InMemoryCartStore(@Value("${cart.store.ttl:P30D}") Duration ttl) {
+		this.ttlMillis = ttl.toMillis();
+	}
+
+	@Override
+	public List<CartLine> getLines(Long userId) {
+		UserCart cart = carts.get(userId);
+		if (cart == null) {
+			return List.of();
+		}
+		List<CartLine> lines = new ArrayList<>(cart.lines.size());
+		cart.lines.forEach((productId, quantity) -> lines.add(line(productId, quantity)));
+		return lines;
+	}
+
+	@Override
+	public Optional<CartLine> findLine(Long userId, Long lineId) {
+		return findByProduct(userId, lineId);
+	}
+
+	@Override
+	public Optional<CartLine> findByProduct(Long userId, Long productId) {
+		UserCart cart = carts.get(userId);
+		Integer quantity = cart == null ? null : cart.lines.get(productId);
+		return Optional.ofNullable(quantity).map(q -> line(productId, q));
+	}
+
+	@Override
+	public CartLine setQuantity(Long userId, Long productId, int quantity) {
+		UserCart cart = carts.computeIfAbsent(userId, id -> new UserCart());
+		cart.lines.put(productId, quantity);
+		cart.touchedAt = System.currentTimeMillis();
+		return line(productId, quantity);
+	}
+
+	@Override
+	public void setQuantities(Long userId, Map<Long, Integer> quantities) {
+		UserCart cart = carts.computeIfAbsent(userId, id -> new UserCart());
+		cart.lines.putAll(quantities);
+		cart.touchedAt = System.currentTimeMillis();
+	}
+
+	@Override
+	public void removeLine(Long userId, Long lineId) {
+		UserCart cart = carts.get(userId);
+		if (cart != null) {
+			cart.lines.remove(lineId);
+		}
+	}
+
+	@Override
+	public void removeProducts(Long userId, Collection<Long> productIds) {
+		UserCart cart = carts.get(userId);
+		if (cart != null) {
+			cart.lines.keySet().removeAll(productIds);
+		}
+	}
+
+	@Override
+	public void clear(Long userId) {
+		carts.remove(userId);
+	}
+
+	@Scheduled(fixedDelayString = "${cart.store.sweep-interval-ms:60000}")
+	public void evictAbandoned() {
+		long cutoff = System.currentTimeMillis() - ttlMillis;
+		carts.values().removeIf(cart -> cart.touchedAt < cutoff);
+	}
+
+	private CartLine line(Long productId, int quantity) {
+		return CartLine.builder().id(productId).productId(productId).quantity(quantity).build();
+	}
+
+	private static class UserCart {
+		private final ConcurrentHashMap<Long, Integer> lines = new ConcurrentHashMap<>();
+		private volatile long touchedAt = System.currentTimeMillis();
+	}
+}
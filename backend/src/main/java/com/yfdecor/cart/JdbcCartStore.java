@@ -0,0 +1,87 @@
+
+package com.yfdecor.cart;
+
+import com.yfdecor.repository.CartItemRepository;
+import com.yfdecor.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "cart.store", havingValue = "jdbc", matchIfMissing = true)
+public class JdbcCartStore implements CartStore {
+
+	private static final String UPSERT_LINE = "INSERT INTO cart_items (user_id, product_id, quantity) VALUES (?, ?, ?) "
+			+ "ON DUPLICATE KEY UPDATE quantity = VALUES(quantity)";
+
+	private final CartItemRepository cartItemRepository;
+	private final UserRepository userRepository;
+	private final JdbcTemplate jdbcTemplate;
+
+	/*
+	 * Reads are projections rather than entities so that lines changed by the JDBC upsert are
+	 * never served from stale managed instances later in the same transaction.
+	 */
+	@Override
+	public List<CartLine> getLines(Long userId) {
+		return cartItemRepository.findLinesByUserId(userId);
+	}
+
+	@Override
+	public Optional<CartLine> findLine(Long userId, Long lineId) {
+		return cartItemRepository.findLineByIdAndUserId(lineId, userId);
+	}
+
+	@Override
+	public Optional<CartLine> findByProduct(Long userId, Long productId) {
+		return cartItemRepository.findLineByUserIdAndProductId(userId, productId);
+	}
+
+	/*
+	 * The same upsert as the bulk path: a find-then-insert would let two concurrent requests
+	 * for a new line both insert and trip the (user_id, product_id) unique key.
+	 */
+	@Override
+	public CartLine setQuantity(Long userId, Long productId, int quantity) {
+		jdbcTemplate.update(UPSERT_LINE, userId, productId, quantity);
+		return cartItemRepository.findLineByUserIdAndProductId(userId, productId)
+				.orElseThrow(() -> new IllegalStateException("Cart line vanished after upsert"));
+	}
+
+	@Override
+	public void setQuantities(Long userId, Map<Long, Integer> quantities) {
+		if (quantities.isEmpty()) {
+			return;
+		}
+		List<Object[]> rows = new ArrayList<>(quantities.size());
+		quantities.forEach((productId, quantity) -> rows.add(new Object[]{userId, productId, quantity}));
+		jdbcTemplate.batchUpdate(UPSERT_LINE, rows);
+	}
+
+	@Override
+	public void removeLine(Long userId, Long lineId) {
+		cartItemRepository.findById(lineId)
+				.filter(item -> item.getUser().getId().equals(userId))
+				.ifPresent(cartItemRepository::delete);
+	}
+
+	@Override
+	public void removeProducts(Long userId, Collection<Long> productIds) {
+		if (!productIds.isEmpty()) {
+			cartItemRepository.deleteByUserIdAndProductIds(userId, productIds);
+		}
+	}
+
+	@Override
+	public void clear(Long userId) {
+		cartItemRepository.deleteByUser(userRepository.getReferenceById(userId));
+	}
+}
@@ -0,0 +1,101 @@
+
+package com.yfdecor.cart;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * One Redis hash per user ({@code cart:<userId>}, field = product id, value = quantity).
+ * Every write pushes the key's expiry out, so abandoned carts disappear on their own.
+ */
+@Component
+@ConditionalOnProperty(name = "cart.store", havingValue = "redis")
+public class RedisCartStore implements CartStore {
+
+	private static final String KEY_PREFIX = "cart:";
+
+	private final StringRedisTemplate redisTemplate;
+	private final HashOperations<String, String, String> hashes;
+	private final Duration ttl;
+
+	public RedisCartStore(StringRedisTemplate redisTemplate, @Value("${cart.store.ttl:P30D}") Duration ttl) {
+		this.redisTemplate = redisTemplate;
+		this.hashes = redisTemplate.opsForHash();
+		this.ttl = ttl;
+	}
+
+	@Override
+	public List<CartLine> getLines(Long userId) {
+		Map<String, String> entries = hashes.entries(key(userId));
+		List<CartLine> lines = new ArrayList<>(entries.size());
+		entries.forEach((productId, quantity) -> lines.add(line(Long.valueOf(productId), Integer.parseInt(quantity))));
+		return lines;
+	}
+
+	@Override
+	public Optional<CartLine> findLine(Long userId, Long lineId) {
+		return findByProduct(userId, lineId);
+	}
+
+	@Override
+	public Optional<CartLine> findByProduct(Long userId, Long productId) {
+		String quantity = hashes.get(key(userId), productId.toString());
+		return Optional.ofNullable(quantity).map(q -> line(productId, Integer.parseInt(q)));
+	}
+
+	@Override
+	public CartLine setQuantity(Long userId, Long productId, int quantity) {
+		String key = key(userId);
+		hashes.put(key, productId.toString(), Integer.toString(quantity));
+		redisTemplate.expire(key, ttl);
+		return line(productId, quantity);
+	}
+
+	@Override
+	public void setQuantities(Long userId, Map<Long, Integer> quantities) {
+		if (quantities.isEmpty()) {
+			return;
+		}
+		Map<String, String> fields = new HashMap<>();
+		quantities.forEach((productId, quantity) -> fields.put(productId.toString(), quantity.toString()));
+		String key = key(userId);
+		hashes.putAll(key, fields);
+		redisTemplate.expire(key, ttl);
+	}
+
+	@Override
+	public void removeLine(Long userId, Long lineId) {
+		hashes.delete(key(userId), lineId.toString());
+	}
+
+	@Override
+	public void removeProducts(Long userId, Collection<Long> productIds) {
+		if (!productIds.isEmpty()) {
+			hashes.delete(key(userId), productIds.stream().map(String::valueOf).toArray());
+		}
+	}
+
+	@Override
+	public void clear(Long userId) {
+		redisTemplate.delete(key(userId));
+	}
+
+	private String key(Long userId) {
+		return KEY_PREFIX + userId;
+	}
+
+	private CartLine line(Long productId, int quantity) {
+		return CartLine.builder().id(productId).productId(productId).quantity(quantity).build();
+	}
+}
@@ -1,5 +1,7 @@
 package com.yfdecor.config;
 
+import com.yfdecor.security.BCryptCostCalibrator;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -9,7 +11,11 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 public class AppConfig {
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${auth.password.cost:0}") int cost,
+                                           @Value("${auth.password.target-hash-ms:250}") long targetHashMillis,
+                                           @Value("${auth.password.min-cost:10}") int minCost,
+                                           @Value("${auth.password.max-cost:16}") int maxCost) {
+        int strength = cost > 0 ? cost : BCryptCostCalibrator.calibrate(targetHashMillis, minCost, maxCost);
+        return new BCryptPasswordEncoder(strength);
     }
 }
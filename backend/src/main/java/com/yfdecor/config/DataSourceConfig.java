@@ -0,0 +1,63 @@
+package com.yfdecor.config;
+
+import com.yfdecor.monitoring.RequestStatsDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Hands out lazy connections: a transaction only borrows from a pool when it issues its
+ * first statement, so reads served from the catalog caches never touch Hikari. When
+ * {@code spring.datasource.replica.url} is set, read-only transactions are routed to the
+ * replica pool and everything else stays on the primary. Only catalog reads are marked
+ * read-only: a user's cart, orders, addresses and the like are read on the primary so they
+ * always include that user's last write, as are the stock counts seeding reservations.
+ *
+ * Both pools are wrapped so the per-request statement counts cover JdbcTemplate as well as
+ * Hibernate, and so connection wait is measured where the pool is really hit rather than at
+ * the lazy proxy.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConditionalOnProperty("spring.datasource.replica.url")
+    @ConfigurationProperties("spring.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(Environment environment) {
+        DataSourceProperties properties = Binder.get(environment)
+                .bind("spring.datasource.replica", DataSourceProperties.class)
+                .get();
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") ObjectProvider<DataSource> replica) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(new RequestStatsDataSource(primary));
+        replica.ifAvailable(readOnly -> proxy.setReadOnlyDataSource(new RequestStatsDataSource(readOnly)));
+        return proxy;
+    }
+}
@@ -3,11 +3,13 @@ package com.yfdecor.controller;
 
 import com.yfdecor.dto.GenericResponse;
 import com.yfdecor.dto.request.AuthRequest;
+import com.yfdecor.dto.request.RefreshTokenRequest;
 import com.yfdecor.dto.request.RegisterRequest;
 import com.yfdecor.dto.response.AuthResponse;
 import com.yfdecor.dto.response.UserResponse;
 import com.yfdecor.service.AuthService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
@@ -31,9 +33,17 @@ public class AuthController {
 	}
 
 
+	@PostMapping("/refresh")
+	public ResponseEntity<AuthResponse> refresh(@RequestBody RefreshTokenRequest request) {
+		return ResponseEntity.ok(authService.refresh(request.getRefreshToken()));
+	}
+
 	@PostMapping("/logout")
-	public ResponseEntity<Void> logout() {
-		// JWT is stateless; logout is handled on frontend by deleting token
+	public ResponseEntity<Void> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+			@RequestBody(required = false) RefreshTokenRequest request) {
+		String accessToken = authorization != null && authorization.startsWith("Bearer ")
+				? authorization.substring("Bearer ".length()) : null;
+		authService.logout(accessToken, request == null ? null : request.getRefreshToken());
 		return ResponseEntity.ok().build();
 	}
 	@PostMapping("/encode/{password}")
@@ -3,8 +3,8 @@ package com.yfdecor.controller;
 
 import com.yfdecor.dto.request.CartItemRequest;
 import com.yfdecor.dto.response.CartItemResponse;
+import com.yfdecor.dto.response.CartQuoteResponse;
 import com.yfdecor.model.User;
-import com.yfdecor.repository.UserRepository;
 import com.yfdecor.service.CartService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -20,38 +20,35 @@ import java.util.List;
 public class CartController {
 
 	private final CartService cartService;
-	private final UserRepository userRepository;
 
 	@GetMapping("/{userId}")
-	public ResponseEntity<List<CartItemResponse>> getCart(@PathVariable Long userId) {
-		User user = userRepository.findById(userId)
-				.orElseThrow(() -> new ResponseStatusException(
-						HttpStatus.NOT_FOUND, "User not found"));
+	public ResponseEntity<List<CartItemResponse>> getCart(
+			@AuthenticationPrincipal User principal,
+			@PathVariable Long userId) {
+		User user = requireOwner(principal, userId);
 
-		return ResponseEntity.ok(cartService.getCart(userId));
+		return ResponseEntity.ok(cartService.getCart(user));
 	}
 
 	@PostMapping("/{userId}")
 	public ResponseEntity<CartItemResponse> addToCart(
+			@AuthenticationPrincipal User principal,
 			@PathVariable Long userId,
 			@RequestBody CartItemRequest request) {
 
-		User user = userRepository.findById(userId)
-				.orElseThrow(() -> new ResponseStatusException(
-						HttpStatus.NOT_FOUND, "User not found"));
+		User user = requireOwner(principal, userId);
 
 		return ResponseEntity.ok(cartService.addToCart(user, request));
 	}
 
 	@PutMapping("/{userId}/{cartItemId}")
 	public ResponseEntity<CartItemResponse> updateCartItem(
+			@AuthenticationPrincipal User principal,
 			@PathVariable Long userId,
 			@PathVariable Long cartItemId,
 			@RequestBody CartItemRequest request) {
 
-		User user = userRepository.findById(userId)
-				.orElseThrow(() -> new ResponseStatusException(
-						HttpStatus.NOT_FOUND, "User not found"));
+		User user = requireOwner(principal, userId);
 
 		return ResponseEntity.ok(
 				cartService.updateCartItem(user, cartItemId, request));
@@ -59,25 +56,57 @@ public class CartController {
 
 	@DeleteMapping("/{userId}/{cartItemId}")
 	public ResponseEntity<Void> removeCartItem(
+			@AuthenticationPrincipal User principal,
 			@PathVariable Long userId,
 			@PathVariable Long cartItemId) {
 
-		User user = userRepository.findById(userId)
-				.orElseThrow(() -> new ResponseStatusException(
-						HttpStatus.NOT_FOUND, "User not found"));
+		User user = requireOwner(principal, userId);
 
 		cartService.removeCartItem(user, cartItemId);
 		return ResponseEntity.noContent().build();
 	}
 
 	@DeleteMapping("/{userId}")
-	public ResponseEntity<Void> clearCart(@PathVariable Long userId) {
+	public ResponseEntity<Void> clearCart(
+			@AuthenticationPrincipal User principal,
+			@PathVariable Long userId) {
 
-		User user = userRepository.findById(userId)
-				.orElseThrow(() -> new ResponseStatusException(
-						HttpStatus.NOT_FOUND, "User not found"));
+		User user = requireOwner(principal, userId);
 
 		cartService.clearCart(user);
 		return ResponseEntity.noContent().build();
 	}
+
+	@PostMapping("/{userId}/merge")
+	public ResponseEntity<List<CartItemResponse>> mergeCart(
+			@AuthenticationPrincipal User principal,
+			@PathVariable Long userId,
+			@RequestBody List<CartItemRequest> guestCart) {
+
+		User user = requireOwner(principal, userId);
+
+		return ResponseEntity.ok(cartService.mergeCart(user, guestCart));
+	}
+
+	@PostMapping("/{userId}/quote")
+	public ResponseEntity<CartQuoteResponse> quoteCart(
+			@AuthenticationPrincipal User principal,
+			@PathVariable Long userId,
+			@RequestBody(required = false) List<CartItemRequest> lines) {
+
+		User user = requireOwner(principal, userId);
+
+		return ResponseEntity.ok(cartService.quote(user, lines));
+	}
+
+	/* The principal comes from the access token, so no users-table lookup is needed. */
+	private User requireOwner(User principal, Long userId) {
+		if (principal == null) {
+			throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Authentication required");
+		}
+		if (!principal.getId().equals(userId)) {
+			throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not your cart");
+		}
+		return principal;
+	}
 }
@@ -1,11 +1,13 @@
 
 package com.yfdecor.controller;
 
+import com.yfdecor.cache.CatalogHttpCache;
 import com.yfdecor.dto.response.CategoryResponse;
 import com.yfdecor.service.CategoryService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -15,14 +17,15 @@ import java.util.List;
 public class CategoryController {
 
 	private final CategoryService categoryService;
+	private final CatalogHttpCache httpCache;
 
 	@GetMapping
-	public ResponseEntity<List<CategoryResponse>> getAllCategories() {
-		return ResponseEntity.ok(categoryService.getAllCategories());
+	public ResponseEntity<List<CategoryResponse>> getAllCategories(WebRequest request) {
+		return httpCache.category(request, categoryService::getAllCategories);
 	}
 
 	@GetMapping("/{slug}")
-	public ResponseEntity<CategoryResponse> getCategoryBySlug(@PathVariable String slug) {
-		return ResponseEntity.ok(categoryService.getCategoryBySlug(slug));
+	public ResponseEntity<CategoryResponse> getCategoryBySlug(@PathVariable String slug, WebRequest request) {
+		return httpCache.category(request, () -> categoryService.getCategoryBySlug(slug));
 	}
 }
@@ -0,0 +1,29 @@
+package com.yfdecor.controller;
+
+import com.yfdecor.cache.ProductCatalogCache;
+import com.yfdecor.dto.response.CacheStatsResponse;
+import com.yfdecor.wishlist.WishlistMembershipCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/metrics")
+@RequiredArgsConstructor
+public class MetricsController {
+
+	private final ProductCatalogCache productCache;
+	private final WishlistMembershipCache wishlistCache;
+
+	@GetMapping("/cache")
+	public ResponseEntity<List<CacheStatsResponse>> getCacheStats() {
+		List<CacheStatsResponse> stats = new ArrayList<>(productCache.stats());
+		stats.add(wishlistCache.stats());
+		return ResponseEntity.ok(stats);
+	}
+}
@@ -1,7 +1,9 @@
 package com.yfdecor.controller;
 
 import com.yfdecor.dto.request.OrderRequest;
+import com.yfdecor.dto.response.CursorPageResponse;
 import com.yfdecor.dto.response.OrderResponse;
+import com.yfdecor.dto.response.StockReservationResponse;
 import com.yfdecor.model.User;
 import com.yfdecor.service.OrderService;
 import lombok.RequiredArgsConstructor;
@@ -24,9 +26,25 @@ public class OrderController {
 		return ResponseEntity.ok(response);
 	}
 
+	@PostMapping("/reservations")
+	public ResponseEntity<StockReservationResponse> reserveCart(@AuthenticationPrincipal User user) {
+		StockReservationResponse response = orderService.reserveCart(user);
+		return ResponseEntity.ok(response);
+	}
+
 	@GetMapping
-	public ResponseEntity<List<OrderResponse>> getOrderHistory(@AuthenticationPrincipal User user) {
-		List<OrderResponse> orders = orderService.getOrders(user);
+	public ResponseEntity<List<OrderResponse>> getOrderHistory(@AuthenticationPrincipal User user,
+			@RequestParam(defaultValue = "1") int page,
+			@RequestParam(defaultValue = "20") int limit) {
+		List<OrderResponse> orders = orderService.getOrders(user, page, limit);
+		return ResponseEntity.ok(orders);
+	}
+
+	@GetMapping(params = "cursor")
+	public ResponseEntity<CursorPageResponse<OrderResponse>> getOrderHistoryByCursor(@AuthenticationPrincipal User user,
+			@RequestParam String cursor,
+			@RequestParam(defaultValue = "20") int limit) {
+		CursorPageResponse<OrderResponse> orders = orderService.getOrdersBefore(user, cursor, limit);
 		return ResponseEntity.ok(orders);
 	}
 
@@ -1,34 +1,222 @@
 
 package com.yfdecor.controller;
 
+import com.yfdecor.cache.CatalogHttpCache;
+import com.yfdecor.dto.request.ProductBatchRequest;
+import com.yfdecor.dto.response.CatalogImportResponse;
+import com.yfdecor.dto.response.CursorPageResponse;
+import com.yfdecor.dto.response.ProductBatchResponse;
+import com.yfdecor.dto.response.ProductFacetResponse;
 import com.yfdecor.dto.response.ProductResponse;
+import com.yfdecor.search.ProductFacetQuery;
+import com.yfdecor.service.CatalogExportService;
+import com.yfdecor.service.CatalogImportService;
 import com.yfdecor.service.ProductService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/products")
 @RequiredArgsConstructor
 public class ProductController {
 
+	/** Request parameters that each select a different listing endpoint; at most one may be given. */
+	private static final List<String> LISTING_MODES = List.of("ids", "cursor", "facets");
+
 	private final ProductService productService;
+	private final CatalogHttpCache httpCache;
+	private final CatalogExportService exportService;
+	private final CatalogImportService importService;
 
 	@GetMapping
 	public ResponseEntity<List<ProductResponse>> getProducts(
-			@RequestParam Optional<String> category,
-			@RequestParam Optional<String> search,
+			@RequestParam(required = false) Set<String> category,
+			@RequestParam(required = false) String search,
+			@RequestParam(required = false) Double minPrice,
+			@RequestParam(required = false) Double maxPrice,
+			@RequestParam(required = false) Integer minDiscount,
+			@RequestParam(required = false) Boolean inStock,
+			@RequestParam(required = false) String sort,
 			@RequestParam(defaultValue = "1") int page,
-			@RequestParam(defaultValue = "20") int limit
+			@RequestParam(defaultValue = "20") int limit,
+			WebRequest request
+	) {
+		// Requests mixing listing modes fall through to here, since each mode's mapping excludes the others
+		rejectMixedListingModes(request);
+		ProductFacetQuery query = query(category, search, minPrice, maxPrice, minDiscount, inStock, sort, page, limit,
+				false);
+		return httpCache.productList(request, () -> productService.getAllProducts(query));
+	}
+
+	@GetMapping(params = {"facets", "!ids", "!cursor"})
+	public ResponseEntity<ProductFacetResponse> getProductsWithFacets(
+			@RequestParam(required = false) Set<String> category,
+			@RequestParam(required = false) String search,
+			@RequestParam(required = false) Double minPrice,
+			@RequestParam(required = false) Double maxPrice,
+			@RequestParam(required = false) Integer minDiscount,
+			@RequestParam(required = false) Boolean inStock,
+			@RequestParam(required = false) String sort,
+			@RequestParam(defaultValue = "1") int page,
+			@RequestParam(defaultValue = "20") int limit,
+			WebRequest request
+	) {
+		ProductFacetQuery query = query(category, search, minPrice, maxPrice, minDiscount, inStock, sort, page, limit,
+				true);
+		return httpCache.productList(request, () -> productService.findProducts(query));
+	}
+
+	@GetMapping(params = {"cursor", "!ids", "!facets"})
+	public ResponseEntity<CursorPageResponse<ProductResponse>> getProductsByCursor(
+			@RequestParam Optional<String> category,
+			@RequestParam String cursor,
+			@RequestParam(defaultValue = "id") String sort,
+			@RequestParam(defaultValue = "20") int limit,
+			WebRequest request
+	) {
+		return httpCache.productList(request, () -> productService.getProductsAfter(category, sort, cursor, limit));
+	}
+
+	@GetMapping(params = {"ids", "!cursor", "!facets"})
+	public ResponseEntity<ProductBatchResponse> getProductsByIds(@RequestParam List<Long> ids, WebRequest request) {
+		return httpCache.productList(request, () -> productService.getProductBatch(ids));
+	}
+
+	@PostMapping("/batch")
+	public ResponseEntity<ProductBatchResponse> getProductBatch(@RequestBody ProductBatchRequest request) {
+		return ResponseEntity.ok(productService.getProductBatch(request.getIds()));
+	}
+
+	/**
+	 * Streams the catalog for feeds and indexers, gzipped when the client accepts it. Pass the
+	 * returned X-Export-Watermark back as updatedSince to pull only what changed since.
+	 * Concurrent exports are capped (429 beyond the cap), and only this endpoint gets the long
+	 * {@code catalog.export.timeout}; other async requests keep the default.
+	 */
+	@GetMapping("/export")
+	public WebAsyncTask<Void> exportProducts(
+			@RequestParam(defaultValue = "ndjson") String format,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedSince,
+			@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+			HttpServletResponse response
+	) {
+		CatalogExportService.Format exportFormat = CatalogExportService.Format.parse(format);
+		boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+		CatalogExportService.Slot slot = exportService.acquireSlot();
+
+		response.setContentType(exportFormat.getContentType());
+		response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products." + exportFormat.getExtension() + "\"");
+		response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+		response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore().getHeaderValue());
+		if (gzip) {
+			response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+		}
+
+		WebAsyncTask<Void> task = new WebAsyncTask<>(exportService.getTimeout().toMillis(), () -> {
+			try (slot) {
+				OutputStream out = response.getOutputStream();
+				// Set before any row is written, while the response is still uncommitted
+				Consumer<LocalDateTime> watermark = mark -> {
+					if (mark != null) {
+						response.setHeader("X-Export-Watermark", mark.toString());
+					}
+				};
+				if (gzip) {
+					GZIPOutputStream compressed = new GZIPOutputStream(out, 8192, true);
+					exportService.export(exportFormat, updatedSince, watermark, compressed);
+					compressed.finish();
+				} else {
+					exportService.export(exportFormat, updatedSince, watermark, out);
+				}
+				out.flush();
+			}
+			return null;
+		});
+		// Frees the slot when the task never ran; a timed-out export fails on its next write
+		task.onCompletion(slot::close);
+		return task;
+	}
+
+	/**
+	 * Admin bulk load in the export's CSV or NDJSON format, upserted by slug. The format is taken
+	 * from ?format, or else from the Content-Type. The body is read as a stream and may be gzipped
+	 * (Content-Encoding: gzip). Bad rows are skipped and listed in the report with their line
+	 * number. Existing products keep their live stock unless ?updateStock=true.
+	 */
+	@PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv", "application/json", "text/plain",
+			"application/octet-stream"})
+	public ResponseEntity<CatalogImportResponse> importProducts(
+			@RequestParam(required = false) String format,
+			@RequestParam(required = false) Integer batchSize,
+			@RequestParam(defaultValue = "false") boolean updateStock,
+			@RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) MediaType contentType,
+			@RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+			InputStream body
 	) {
-		return ResponseEntity.ok(productService.getAllProducts(category, search, page, limit));
+		CatalogExportService.Format importFormat = format != null
+				? CatalogExportService.Format.parse(format)
+				: CatalogExportService.Format.forContentType(contentType);
+		InputStream in = body;
+		if ("gzip".equalsIgnoreCase(contentEncoding)) {
+			try {
+				in = new GZIPInputStream(body, 8192);
+			} catch (IOException e) {
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Request body is not valid gzip");
+			}
+		}
+		return ResponseEntity.ok(importService.importProducts(importFormat, in, batchSize, updateStock));
 	}
 
 	@GetMapping("/{id}")
-	public ResponseEntity<ProductResponse> getProductById(@PathVariable Long id) {
-		return ResponseEntity.ok(productService.getProductById(id));
+	public ResponseEntity<ProductResponse> getProductById(@PathVariable Long id, WebRequest request) {
+		return httpCache.product(request, () -> productService.getProductById(id));
+	}
+
+	@GetMapping("/slug/{slug}")
+	public ResponseEntity<ProductResponse> getProductBySlug(@PathVariable String slug, WebRequest request) {
+		return httpCache.product(request, () -> productService.getProductBySlug(slug));
+	}
+
+	private static void rejectMixedListingModes(WebRequest request) {
+		if (LISTING_MODES.stream().filter(mode -> request.getParameter(mode) != null).count() > 1) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "ids, cursor and facets cannot be combined");
+		}
+	}
+
+	private static ProductFacetQuery query(Set<String> category, String search, Double minPrice, Double maxPrice,
+			Integer minDiscount, Boolean inStock, String sort, int page, int limit, boolean facets) {
+		return ProductFacetQuery.builder()
+				.categories(category == null ? Set.of() : category)
+				.text(search)
+				.minPrice(minPrice)
+				.maxPrice(maxPrice)
+				.minDiscount(minDiscount)
+				.inStock(inStock)
+				.sort(sort)
+				.page(page)
+				.limit(limit)
+				.facets(facets)
+				.build();
 	}
 }
@@ -8,6 +8,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/wishlist")
@@ -21,6 +22,12 @@ public class WishlistController {
 		return ResponseEntity.ok(wishlist);
 	}
 
+	@GetMapping("/membership")
+	public ResponseEntity<Map<Long, Boolean>> getMembership(@AuthenticationPrincipal User user,
+			@RequestParam List<Long> productIds) {
+		return ResponseEntity.ok(wishlistService.getMembership(user, productIds));
+	}
+
 	@PostMapping("/{productId}")
 	public ResponseEntity<WishlistItemResponse> addToWishlist(@AuthenticationPrincipal User user,
 			@PathVariable Long productId) {
@@ -6,4 +6,5 @@ import lombok.Data;
 @Data
 public class OrderRequest {
 	private Long addressId;
+	private String reservationId;
 }
@@ -0,0 +1,10 @@
+package com.yfdecor.dto.request;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ProductBatchRequest {
+	private List<Long> ids;
+}
@@ -0,0 +1,9 @@
+
+package com.yfdecor.dto.request;
+
+import lombok.Data;
+
+@Data
+public class RefreshTokenRequest {
+	private String refreshToken;
+}
@@ -12,4 +12,8 @@ import lombok.NoArgsConstructor;
 @Builder
 public class AuthResponse {
 	private UserResponse user;
+	private String accessToken;
+	private String refreshToken;
+	private String tokenType;
+	private Long expiresIn;
 }
@@ -0,0 +1,21 @@
+
+package com.yfdecor.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CacheStatsResponse {
+	private String name;
+	private Integer size;
+	private Integer maxSize;
+	private Long hits;
+	private Long misses;
+	private Long evictions;
+	private Double hitRate;
+}
@@ -0,0 +1,24 @@
+package com.yfdecor.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CartQuoteLineResponse {
+	private Long cartItemId;
+	private Long productId;
+	private String name;
+	private Integer requestedQuantity;
+	private Integer quantity; // what can be bought now: min(requested, available)
+	private Integer availableQuantity;
+	private String status; // ok, insufficient_stock, out_of_stock, unavailable
+	private Double unitPrice;
+	private Double unitDiscount;
+	private Double unitNetPrice;
+	private Double lineTotal;
+}
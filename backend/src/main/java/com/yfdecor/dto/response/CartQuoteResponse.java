@@ -0,0 +1,23 @@
+package com.yfdecor.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CartQuoteResponse {
+	private List<CartQuoteLineResponse> lines;
+	private Boolean valid; // every line can be bought at the requested quantity
+	private Double listTotal;
+	private Double discountTotal;
+	private Double promotionTotal;
+	private Double itemsTotal;
+	private Double deliveryCharge;
+	private Double grandTotal;
+}
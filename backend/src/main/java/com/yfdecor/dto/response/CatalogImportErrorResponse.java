@@ -0,0 +1,16 @@
+package com.yfdecor.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CatalogImportErrorResponse {
+	private Long line;
+	private String slug;
+	private String message;
+}
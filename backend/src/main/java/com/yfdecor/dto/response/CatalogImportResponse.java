@@ -0,0 +1,27 @@
+package com.yfdecor.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CatalogImportResponse {
+	private String format;
+	private Long rowsRead;
+	private Long inserted;
+	private Long updated;
+	private Long failed;
+	private Long durationMs;
+	private Double rowsPerSecond;
+	// False when reading stopped early; rows before that point were still imported
+	private Boolean completed;
+	private List<CatalogImportErrorResponse> errors;
+	// Only the first catalog.import.max-errors errors are listed
+	private Boolean errorsTruncated;
+}
@@ -1,6 +1,7 @@
 
 package com.yfdecor.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -16,4 +17,9 @@ public class CategoryResponse {
 	private String slug;
 	private String description;
 	private String imageUrl;
+	// Only set on category endpoints, not on categories embedded in products
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private Integer productCount;
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private Integer inStockCount;
 }
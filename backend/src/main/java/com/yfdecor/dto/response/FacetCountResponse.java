@@ -0,0 +1,20 @@
+package com.yfdecor.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FacetCountResponse {
+	// The value to send back as the filter, e.g. a category slug or "500-1000"
+	private String value;
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private String label;
+	private Integer count;
+	private Boolean selected;
+}
@@ -16,6 +16,7 @@ public class OrderResponse {
 	private Long id;
 	private String orderNumber;
 	private Double totalAmount;
+	private Double promotionAmount;
 	private Double deliveryCharge;
 	private String status;
 	private LocalDateTime createdAt;
@@ -0,0 +1,22 @@
+package com.yfdecor.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductFacetResponse {
+	private List<ProductResponse> items;
+	private Integer total;
+	private Integer page;
+	private Integer limit;
+	// Keyed by dimension: category, price, discount, availability
+	private Map<String, List<FacetCountResponse>> facets;
+}
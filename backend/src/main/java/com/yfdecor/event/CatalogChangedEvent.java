@@ -0,0 +1,38 @@
+
+package com.yfdecor.event;
+
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Published whenever product rows change (stock, price, imports). An empty id set means
+ * "anything may have changed" and listeners should drop everything they hold.
+ */
+@Getter
+public class CatalogChangedEvent {
+
+	private final Set<Long> productIds;
+
+	private CatalogChangedEvent(Set<Long> productIds) {
+		this.productIds = productIds;
+	}
+
+	public static CatalogChangedEvent products(Collection<Long> productIds) {
+		return new CatalogChangedEvent(Set.copyOf(productIds));
+	}
+
+	public static CatalogChangedEvent product(Long productId) {
+		return products(List.of(productId));
+	}
+
+	public static CatalogChangedEvent all() {
+		return new CatalogChangedEvent(Set.of());
+	}
+
+	public boolean isFullRefresh() {
+		return productIds.isEmpty();
+	}
+}
@@ -0,0 +1,27 @@
+package com.yfdecor.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Outbox payload written with every placed order. Quantities are keyed by product id.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderPlacedEvent {
+	private Long orderId;
+	private String orderNumber;
+	private Long userId;
+	private String email;
+	private Double totalAmount;
+	private Double deliveryCharge;
+	private Map<Long, Integer> quantities;
+	private LocalDateTime placedAt;
+}
@@ -2,9 +2,11 @@ package com.yfdecor.exception;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.HashMap;
@@ -31,6 +33,22 @@ public class GlobalExceptionHandler {
 		return ResponseEntity.badRequest().body(body);
 	}
 
+	@ExceptionHandler(MethodArgumentTypeMismatchException.class)
+	public ResponseEntity<Map<String, Object>> handleTypeMismatchException(MethodArgumentTypeMismatchException ex) {
+		Map<String, Object> body = new HashMap<>();
+		body.put("error", "Invalid value for " + ex.getName());
+		body.put("status", HttpStatus.BAD_REQUEST.value());
+		return ResponseEntity.badRequest().body(body);
+	}
+
+	@ExceptionHandler(HttpMediaTypeNotSupportedException.class)
+	public ResponseEntity<Map<String, Object>> handleMediaTypeException(HttpMediaTypeNotSupportedException ex) {
+		Map<String, Object> body = new HashMap<>();
+		body.put("error", "Unsupported content type " + ex.getContentType());
+		body.put("status", HttpStatus.UNSUPPORTED_MEDIA_TYPE.value());
+		return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).body(body);
+	}
+
 	@ExceptionHandler(Exception.class)
 	public ResponseEntity<Map<String, Object>> handleGenericException(Exception ex) {
 		Map<String, Object> body = new HashMap<>();
@@ -0,0 +1,78 @@
+package com.yfdecor.ingest;
+
+import com.yfdecor.dto.response.CatalogImportErrorResponse;
+import com.yfdecor.dto.response.CatalogImportResponse;
+import com.yfdecor.service.CatalogExportService;
+import com.yfdecor.service.CatalogImportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Command-line import: start the app with {@code --catalog.import.file=products.csv} (optionally
+ * gzipped, and usually with {@code --spring.main.web-application-type=none}) and it imports the
+ * file, logs the report and exits with status 0, or 1 if any row failed or the file could not
+ * be read to the end. The format comes from the file extension unless
+ * {@code catalog.import.format} is set. Existing products keep their stock unless
+ * {@code catalog.import.update-stock=true}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty("catalog.import.file")
+public class CatalogImportRunner implements ApplicationRunner {
+
+	private final CatalogImportService importService;
+	private final ConfigurableApplicationContext context;
+	private final Path file;
+	private final String format;
+	private final boolean updateStock;
+
+	public CatalogImportRunner(CatalogImportService importService, ConfigurableApplicationContext context,
+			@Value("${catalog.import.file}") Path file,
+			@Value("${catalog.import.format:}") String format,
+			@Value("${catalog.import.update-stock:false}") boolean updateStock) {
+		this.importService = importService;
+		this.context = context;
+		this.file = file;
+		this.format = format;
+		this.updateStock = updateStock;
+	}
+
+	@Override
+	public void run(ApplicationArguments args) throws Exception {
+		String name = file.getFileName().toString().toLowerCase();
+		boolean gzip = name.endsWith(".gz");
+		String extension = gzip ? name.substring(0, name.length() - 3) : name;
+		extension = extension.substring(extension.lastIndexOf('.') + 1);
+		CatalogExportService.Format importFormat = CatalogExportService.Format.parse(
+				!format.isBlank() ? format : "jsonl".equals(extension) ? "ndjson" : extension);
+
+		CatalogImportResponse report;
+		try (InputStream in = gzip ? new GZIPInputStream(Files.newInputStream(file), 64 * 1024)
+				: Files.newInputStream(file)) {
+			report = importService.importProducts(importFormat, in, null, updateStock);
+		}
+		for (CatalogImportErrorResponse error : report.getErrors()) {
+			if (error.getLine() == null) {
+				log.warn("{}: {}", file, error.getMessage());
+			} else {
+				log.warn("{} line {} ({}): {}", file, error.getLine(), error.getSlug(), error.getMessage());
+			}
+		}
+		if (report.getErrorsTruncated()) {
+			log.warn("Further errors were not listed (catalog.import.max-errors)");
+		}
+		boolean ok = report.getCompleted() && report.getFailed() == 0;
+		System.exit(SpringApplication.exit(context, () -> ok ? 0 : 1));
+	}
+}
@@ -0,0 +1,155 @@
+package com.yfdecor.ingest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads RFC 4180 CSV with a header row, the format {@code GET /api/products/export} writes.
+ * Columns are matched by header name and unknown ones are ignored, so an export can be fed
+ * back unchanged. Quoted fields may contain commas, quotes ("") and line breaks.
+ */
+public class CsvProductRowReader implements ProductRowReader {
+
+	private static final String[] COLUMNS = {"name", "slug", "description", "imageUrl", "stock", "price",
+			"discount", "categorySlug"};
+
+	private final Reader reader;
+	private final Map<String, Integer> columns = new HashMap<>();
+	private final StringBuilder field = new StringBuilder();
+	private long line = 1;
+	private int pending = -2;
+
+	public CsvProductRowReader(Reader reader) throws IOException {
+		this.reader = reader;
+		List<String> header = readRecord();
+		if (header == null) {
+			return;
+		}
+		for (int i = 0; i < header.size(); i++) {
+			String name = trim(header.get(i));
+			// Tolerate a UTF-8 byte order mark in front of the first column name
+			if (i == 0 && name != null && name.startsWith("\uFEFF")) {
+				name = name.substring(1);
+			}
+			columns.putIfAbsent(name, i);
+		}
+		for (String required : new String[]{"name", "slug", "stock", "price", "categorySlug"}) {
+			if (!columns.containsKey(required)) {
+				throw new IllegalArgumentException("CSV header has no " + required + " column");
+			}
+		}
+	}
+
+	@Override
+	public ProductImportRow next() throws IOException {
+		List<String> record;
+		long start;
+		do {
+			start = line;
+			record = readRecord();
+			if (record == null) {
+				return null;
+			}
+		} while (record.size() == 1 && record.get(0) == null);
+
+		return ProductImportRow.builder()
+				.line(start)
+				.name(column(record, COLUMNS[0]))
+				.slug(column(record, COLUMNS[1]))
+				.description(column(record, COLUMNS[2]))
+				.imageUrl(column(record, COLUMNS[3]))
+				.stock(column(record, COLUMNS[4]))
+				.price(column(record, COLUMNS[5]))
+				.discount(column(record, COLUMNS[6]))
+				.categorySlug(column(record, COLUMNS[7]))
+				.build();
+	}
+
+	private String column(List<String> record, String name) {
+		Integer index = columns.get(name);
+		return index == null || index >= record.size() ? null : record.get(index);
+	}
+
+	/**
+	 * Reads one record, or null at the end of the input. Empty fields come back as null.
+	 */
+	private List<String> readRecord() throws IOException {
+		int c = read();
+		if (c == -1) {
+			return null;
+		}
+		long start = line;
+		List<String> record = new ArrayList<>();
+		boolean quoted = false;
+		boolean wasQuoted = false;
+		field.setLength(0);
+		while (true) {
+			if (quoted) {
+				if (c == -1) {
+					throw new IOException("Unterminated quoted field in the record starting at line " + start);
+				}
+				if (c == '"') {
+					int next = read();
+					if (next == '"') {
+						field.append('"');
+					} else {
+						quoted = false;
+						c = next;
+						continue;
+					}
+				} else {
+					if (c == '\n') {
+						line++;
+					}
+					field.append((char) c);
+				}
+			} else if (c == '"' && field.isEmpty() && !wasQuoted) {
+				quoted = true;
+				wasQuoted = true;
+			} else if (c == ',') {
+				record.add(value(wasQuoted));
+				field.setLength(0);
+				wasQuoted = false;
+			} else if (c == '\r' || c == '\n' || c == -1) {
+				if (c == '\r') {
+					int next = read();
+					if (next != '\n') {
+						pending = next;
+					}
+				}
+				if (c != -1) {
+					line++;
+				}
+				record.add(value(wasQuoted));
+				return record;
+			} else {
+				field.append((char) c);
+			}
+			c = read();
+		}
+	}
+
+	private String value(boolean wasQuoted) {
+		if (field.isEmpty()) {
+			return null;
+		}
+		return wasQuoted ? field.toString() : field.toString().trim();
+	}
+
+	private int read() throws IOException {
+		if (pending != -2) {
+			int c = pending;
+			pending = -2;
+			return c;
+		}
+		return reader.read();
+	}
+
+	private static String trim(String value) {
+		return value == null ? null : value.trim();
+	}
+}
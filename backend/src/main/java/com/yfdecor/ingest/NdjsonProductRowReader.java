@@ -0,0 +1,67 @@
+package com.yfdecor.ingest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * Reads one JSON object per line, the format {@code GET /api/products/export} writes. Each line
+ * is parsed on its own, so a malformed line becomes an error for that row and reading carries on
+ * with the next. Blank lines are skipped.
+ */
+public class NdjsonProductRowReader implements ProductRowReader {
+
+	private final BufferedReader reader;
+	private final ObjectMapper objectMapper;
+	private long line;
+
+	public NdjsonProductRowReader(BufferedReader reader, ObjectMapper objectMapper) {
+		this.reader = reader;
+		this.objectMapper = objectMapper;
+	}
+
+	@Override
+	public ProductImportRow next() throws IOException {
+		String text;
+		do {
+			text = reader.readLine();
+			if (text == null) {
+				return null;
+			}
+			line++;
+		} while (text.isBlank());
+
+		JsonNode node;
+		try {
+			node = objectMapper.readTree(text);
+		} catch (JsonProcessingException e) {
+			return ProductImportRow.unparseable(line, "Malformed JSON: " + e.getOriginalMessage());
+		}
+		if (!node.isObject()) {
+			return ProductImportRow.unparseable(line, "Expected a JSON object");
+		}
+		return ProductImportRow.builder()
+				.line(line)
+				.name(text(node, "name"))
+				.slug(text(node, "slug"))
+				.description(text(node, "description"))
+				.imageUrl(text(node, "imageUrl"))
+				.stock(text(node, "stock"))
+				.price(text(node, "price"))
+				.discount(text(node, "discount"))
+				.categorySlug(text(node, "categorySlug"))
+				.build();
+	}
+
+	private static String text(JsonNode node, String field) {
+		JsonNode value = node.get(field);
+		if (value == null || value.isNull() || value.isContainerNode()) {
+			return null;
+		}
+		String text = value.asText();
+		return text.isEmpty() ? null : text;
+	}
+}
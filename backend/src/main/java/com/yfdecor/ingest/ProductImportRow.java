@@ -0,0 +1,29 @@
+package com.yfdecor.ingest;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * One record of an import file as read, before validation. Every field is the raw text
+ * (null when absent or empty); {@code line} is where the record starts in the file.
+ * A record the reader could not parse carries {@code parseError} instead of fields.
+ */
+@Getter
+@Builder
+public class ProductImportRow {
+
+	private final long line;
+	private final String name;
+	private final String slug;
+	private final String description;
+	private final String imageUrl;
+	private final String stock;
+	private final String price;
+	private final String discount;
+	private final String categorySlug;
+	private final String parseError;
+
+	public static ProductImportRow unparseable(long line, String parseError) {
+		return ProductImportRow.builder().line(line).parseError(parseError).build();
+	}
+}
@@ -0,0 +1,14 @@
+package com.yfdecor.ingest;
+
+import java.io.IOException;
+
+/**
+ * Pulls import rows off a stream one at a time, so files of any size are read in constant memory.
+ */
+public interface ProductRowReader {
+
+	/**
+	 * The next row, or null at the end of the input.
+	 */
+	ProductImportRow next() throws IOException;
+}
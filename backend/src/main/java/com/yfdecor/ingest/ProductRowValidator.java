@@ -0,0 +1,107 @@
+package com.yfdecor.ingest;
+
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Checks an import row and converts it to a {@link ProductUpsert}. Categories are resolved by
+ * slug from a map loaded once per import, so validation never touches the database and rows can
+ * be checked in parallel.
+ */
+public class ProductRowValidator {
+
+	// Matches the VARCHAR(255) columns Hibernate generates for the products table
+	private static final int MAX_TEXT_LENGTH = 255;
+	// Slugs end up in /api/products/slug/{slug}, so keep them to a single path segment
+	private static final Pattern SLUG = Pattern.compile("[^\\s/?#%]+");
+
+	private final Map<String, Long> categoryIdsBySlug;
+
+	public ProductRowValidator(Map<String, Long> categoryIdsBySlug) {
+		this.categoryIdsBySlug = categoryIdsBySlug;
+	}
+
+	/**
+	 * @throws IllegalArgumentException describing the first problem found
+	 */
+	public ProductUpsert validate(ProductImportRow row) {
+		if (row.getParseError() != null) {
+			throw new IllegalArgumentException(row.getParseError());
+		}
+		String name = text("name", row.getName(), true);
+		String slug = text("slug", row.getSlug(), true);
+		if (!SLUG.matcher(slug).matches()) {
+			throw new IllegalArgumentException("slug must not contain whitespace, /, ?, # or %");
+		}
+		String categorySlug = text("categorySlug", row.getCategorySlug(), true);
+		Long categoryId = categoryIdsBySlug.get(categorySlug);
+		if (categoryId == null) {
+			throw new IllegalArgumentException("Unknown category: " + categorySlug);
+		}
+
+		int stock = integer("stock", row.getStock());
+		if (stock < 0) {
+			throw new IllegalArgumentException("stock must not be negative");
+		}
+		double price = number("price", row.getPrice());
+		if (price <= 0) {
+			throw new IllegalArgumentException("price must be positive");
+		}
+		Double discount = row.getDiscount() == null ? null : number("discount", row.getDiscount());
+		// Discounts are an absolute amount off the unit price
+		if (discount != null && (discount < 0 || discount > price)) {
+			throw new IllegalArgumentException("discount must be between 0 and the price");
+		}
+
+		return ProductUpsert.builder()
+				.line(row.getLine())
+				.name(name)
+				.slug(slug)
+				.description(text("description", row.getDescription(), false))
+				.imageUrl(text("imageUrl", row.getImageUrl(), false))
+				.categoryId(categoryId)
+				.stock(stock)
+				.price(price)
+				.discount(discount)
+				.build();
+	}
+
+	private static String text(String field, String value, boolean required) {
+		if (value == null || value.isBlank()) {
+			if (required) {
+				throw new IllegalArgumentException(field + " is required");
+			}
+			return null;
+		}
+		if (value.length() > MAX_TEXT_LENGTH) {
+			throw new IllegalArgumentException(field + " is longer than " + MAX_TEXT_LENGTH + " characters");
+		}
+		return value;
+	}
+
+	private static int integer(String field, String value) {
+		if (value == null) {
+			throw new IllegalArgumentException(field + " is required");
+		}
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException(field + " is not a whole number: " + value);
+		}
+	}
+
+	private static double number(String field, String value) {
+		if (value == null) {
+			throw new IllegalArgumentException(field + " is required");
+		}
+		try {
+			double number = Double.parseDouble(value.trim());
+			if (Double.isNaN(number) || Double.isInfinite(number)) {
+				throw new NumberFormatException();
+			}
+			return number;
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException(field + " is not a number: " + value);
+		}
+	}
+}
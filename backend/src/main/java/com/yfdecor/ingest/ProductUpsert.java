@@ -0,0 +1,22 @@
+package com.yfdecor.ingest;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * A validated import row, ready to be written. Products are matched on {@code slug}.
+ */
+@Getter
+@Builder
+public class ProductUpsert {
+
+	private final long line;
+	private final String name;
+	private final String slug;
+	private final String description;
+	private final String imageUrl;
+	private final Long categoryId;
+	private final int stock;
+	private final double price;
+	private final Double discount;
+}
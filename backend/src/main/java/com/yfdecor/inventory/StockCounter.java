@@ -0,0 +1,78 @@
+package com.yfdecor.inventory;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Database stock and the quantity held by open reservations for one product, packed into a
+ * single long (stock in the high half, held in the low half) so a reservation can check and
+ * take against both with one CAS, and a stock refresh can never lose a concurrent hold.
+ */
+final class StockCounter {
+
+	private final AtomicLong state;
+
+	StockCounter(int stock) {
+		this.state = new AtomicLong(pack(stock, 0));
+	}
+
+	int available() {
+		long current = state.get();
+		return stock(current) - held(current);
+	}
+
+	boolean tryHold(int quantity) {
+		while (true) {
+			long current = state.get();
+			if (stock(current) - held(current) < quantity) {
+				return false;
+			}
+			if (state.compareAndSet(current, pack(stock(current), held(current) + quantity))) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * A hold was released: the stock never left the database.
+	 */
+	void unhold(int quantity) {
+		update(0, -quantity);
+	}
+
+	/**
+	 * A hold was confirmed: the order committed, so the stock left the database too.
+	 */
+	void settle(int quantity) {
+		update(-quantity, -quantity);
+	}
+
+	void resetStock(int stock) {
+		while (true) {
+			long current = state.get();
+			if (state.compareAndSet(current, pack(stock, held(current)))) {
+				return;
+			}
+		}
+	}
+
+	private void update(int stockDelta, int heldDelta) {
+		while (true) {
+			long current = state.get();
+			if (state.compareAndSet(current, pack(stock(current) + stockDelta, held(current) + heldDelta))) {
+				return;
+			}
+		}
+	}
+
+	private static long pack(int stock, int held) {
+		return ((long) stock << 32) | (held & 0xFFFFFFFFL);
+	}
+
+	private static int stock(long state) {
+		return (int) (state >> 32);
+	}
+
+	private static int held(long state) {
+		return (int) state;
+	}
+}
@@ -0,0 +1,43 @@
+
+package com.yfdecor.inventory;
+
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Quantities held for one user's checkout. Claimed by at most one checkout, and settled
+ * exactly once, either confirmed (the order committed and the stock left the database) or
+ * released back to the available counters.
+ */
+@Getter
+public class StockReservation {
+
+	private final String id;
+	private final Long userId;
+	private final Map<Long, Integer> quantities;
+	private final Instant expiresAt;
+	private final AtomicBoolean claimed = new AtomicBoolean();
+	private final AtomicBoolean settled = new AtomicBoolean();
+
+	StockReservation(String id, Long userId, Map<Long, Integer> quantities, Instant expiresAt) {
+		this.id = id;
+		this.userId = userId;
+		this.quantities = Map.copyOf(quantities);
+		this.expiresAt = expiresAt;
+	}
+
+	boolean isExpired(Instant now) {
+		return now.isAfter(expiresAt);
+	}
+
+	boolean claim() {
+		return claimed.compareAndSet(false, true);
+	}
+
+	boolean settle() {
+		return settled.compareAndSet(false, true);
+	}
+}
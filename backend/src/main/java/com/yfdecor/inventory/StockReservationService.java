@@ -0,0 +1,216 @@
+
+package com.yfdecor.inventory;
+
+import com.yfdecor.cache.ProductStock;
+import com.yfdecor.event.CatalogChangedEvent;
+import com.yfdecor.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Lock-free stock reservations. Each product has a counter of its database stock and the
+ * quantity held by open reservations, seeded from the database the first time the product is
+ * reserved or checked. Reservations are taken with CAS, so concurrent checkouts of the same
+ * item never wait on each other, and are held until confirmed, released or expired.
+ *
+ * When product rows change the counters re-read their stock and keep their holds. Seeding,
+ * refreshing and confirming share one lock so a stale stock read can never be applied after
+ * a newer confirmation; reserving and releasing never take it.
+ *
+ * The counters only shed load early: the conditional stock UPDATE at checkout remains the
+ * final guard against overselling.
+ */
+@Slf4j
+@Service
+public class StockReservationService {
+
+	private final ProductRepository productRepository;
+	private final ConcurrentHashMap<Long, StockCounter> counters = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String, StockReservation> reservations = new ConcurrentHashMap<>();
+	private final Object refreshLock = new Object();
+	private final Duration ttl;
+
+	public StockReservationService(ProductRepository productRepository,
+			@Value("${inventory.reservation.ttl:PT5M}") Duration ttl) {
+		this.productRepository = productRepository;
+		this.ttl = ttl;
+	}
+
+	/**
+	 * Reserves every line or none. Products are taken in id order and anything already taken
+	 * is handed back if a later line cannot be satisfied.
+	 */
+	public StockReservation reserve(Long userId, Map<Long, Integer> quantities) {
+		Map<Long, Integer> ordered = new TreeMap<>(quantities);
+		seed(ordered.keySet());
+		List<Map.Entry<Long, Integer>> taken = new ArrayList<>(ordered.size());
+		for (Map.Entry<Long, Integer> line : ordered.entrySet()) {
+			if (!counters.get(line.getKey()).tryHold(line.getValue())) {
+				taken.forEach(this::giveBack);
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Not enough stock for product " + line.getKey());
+			}
+			taken.add(line);
+		}
+		StockReservation reservation = new StockReservation(
+				UUID.randomUUID().toString(), userId, ordered, Instant.now().plus(ttl));
+		reservations.put(reservation.getId(), reservation);
+		return reservation;
+	}
+
+	/**
+	 * Hands the caller's open reservation to one checkout. A second claim of the same
+	 * reservation, e.g. a double submit, is rejected, as is a cart that changed since it was
+	 * reserved. An expired reservation, or one this instance does not hold (swept, or taken on
+	 * another instance), is replaced by a fresh one; orders record the reservation id they were
+	 * placed with, which is what keeps an id from being checked out twice.
+	 */
+	public StockReservation claim(String reservationId, Long userId, Map<Long, Integer> quantities) {
+		StockReservation existing = reservations.get(reservationId);
+		if (existing == null || !existing.getUserId().equals(userId)) {
+			return reserve(userId, quantities);
+		}
+		if (!existing.claim()) {
+			throw new ResponseStatusException(HttpStatus.CONFLICT, "Reservation is already being checked out");
+		}
+		if (existing.isExpired(Instant.now())) {
+			release(existing);
+			return reserve(userId, quantities);
+		}
+		if (!existing.getQuantities().equals(quantities)) {
+			release(existing);
+			throw new ResponseStatusException(HttpStatus.CONFLICT, "Cart changed since it was reserved");
+		}
+		return existing;
+	}
+
+	/**
+	 * Settles the reservation with the surrounding transaction: confirmed on commit, released
+	 * on rollback. Register it before publishing catalog events so the confirmation runs first.
+	 */
+	public void settleWithTransaction(StockReservation reservation) {
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				confirm(reservation);
+			}
+
+			@Override
+			public void afterCompletion(int status) {
+				if (status != STATUS_COMMITTED) {
+					release(reservation);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Stock that can still be promised for a product, net of other checkouts in flight.
+	 */
+	public int available(Long productId) {
+		seed(List.of(productId));
+		return counters.get(productId).available();
+	}
+
+	public void confirm(StockReservation reservation) {
+		if (reservation.settle()) {
+			reservations.remove(reservation.getId());
+			synchronized (refreshLock) {
+				reservation.getQuantities().forEach((productId, quantity) -> counters.get(productId).settle(quantity));
+			}
+		}
+	}
+
+	public void release(StockReservation reservation) {
+		if (reservation.settle()) {
+			reservations.remove(reservation.getId());
+			reservation.getQuantities().entrySet().forEach(this::giveBack);
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${inventory.reservation.sweep-interval-ms:30000}")
+	public void releaseExpired() {
+		Instant now = Instant.now();
+		int released = 0;
+		for (StockReservation reservation : reservations.values()) {
+			if (reservation.isExpired(now)) {
+				release(reservation);
+				released++;
+			}
+		}
+		if (released > 0) {
+			log.info("Released {} expired stock reservations", released);
+		}
+	}
+
+	/**
+	 * Database stock moved, so the affected counters re-read it; their holds are kept. Products
+	 * that no longer exist drop to zero stock.
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onCatalogChanged(CatalogChangedEvent event) {
+		synchronized (refreshLock) {
+			Collection<Long> ids = event.isFullRefresh() ? counters.keySet() : event.getProductIds().stream()
+					.filter(counters::containsKey)
+					.collect(Collectors.toList());
+			if (ids.isEmpty()) {
+				return;
+			}
+			Map<Long, Integer> stock = event.isFullRefresh() ? loadAllStock() : loadStock(ids);
+			for (Long id : ids) {
+				counters.get(id).resetStock(stock.getOrDefault(id, 0));
+			}
+		}
+	}
+
+	/**
+	 * Creates counters for the products that have none yet, from one stock query. Unknown
+	 * products get a zero counter, so they can never be reserved.
+	 */
+	private void seed(Collection<Long> productIds) {
+		if (counters.keySet().containsAll(productIds)) {
+			return;
+		}
+		synchronized (refreshLock) {
+			List<Long> missing = productIds.stream().filter(id -> !counters.containsKey(id)).collect(Collectors.toList());
+			if (missing.isEmpty()) {
+				return;
+			}
+			Map<Long, Integer> stock = loadStock(missing);
+			for (Long id : missing) {
+				counters.put(id, new StockCounter(stock.getOrDefault(id, 0)));
+			}
+		}
+	}
+
+	private Map<Long, Integer> loadStock(Collection<Long> productIds) {
+		return productRepository.findStockByIdIn(productIds).stream()
+				.collect(Collectors.toMap(ProductStock::getProductId, ProductStock::getStock));
+	}
+
+	private Map<Long, Integer> loadAllStock() {
+		return productRepository.findAllStock().stream()
+				.collect(Collectors.toMap(ProductStock::getProductId, ProductStock::getStock));
+	}
+
+	private void giveBack(Map.Entry<Long, Integer> line) {
+		counters.get(line.getKey()).unhold(line.getValue());
+	}
+}
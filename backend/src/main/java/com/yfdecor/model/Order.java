@@ -25,9 +25,18 @@ public class Order {
 	@Column(nullable = false, unique = true)
 	private String orderNumber;
 
+	// The stock reservation checked out; unique so a reservation places at most one order.
+	@Column(unique = true, length = 36)
+	private String reservationId;
+
 	@Column(nullable = false)
 	private Double totalAmount;
 
+	// Order-level promotion. Item prices are taken before it, so the items sum to
+	// totalAmount + promotionAmount.
+	@Column(nullable = false)
+	private Double promotionAmount;
+
 	@Column(nullable = false)
 	private Double deliveryCharge;
 
@@ -0,0 +1,57 @@
+package com.yfdecor.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * One handler's pending work for a domain event, written in the same transaction as the
+ * change that raised it. While a row is being processed, nextAttemptAt doubles as its lease.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+		@Index(name = "idx_outbox_status_next_attempt", columnList = "status, next_attempt_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+	public static final String PENDING = "pending";
+	public static final String PROCESSING = "processing";
+	public static final String DONE = "done";
+	public static final String DEAD = "dead";
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Column(nullable = false)
+	private String eventType;
+
+	@Column(nullable = false)
+	private String handler;
+
+	private Long aggregateId;
+
+	@Column(nullable = false, columnDefinition = "TEXT")
+	private String payload;
+
+	@Column(nullable = false)
+	private String status; // pending, processing, done, dead
+
+	@Column(nullable = false)
+	private Integer attempts;
+
+	@Column(nullable = false)
+	private LocalDateTime nextAttemptAt;
+
+	@Column(length = 1000)
+	private String lastError;
+
+	@Column(nullable = false)
+	private LocalDateTime createdAt;
+
+	private LocalDateTime processedAt;
+}
@@ -3,9 +3,15 @@ package com.yfdecor.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+		@Index(name = "idx_products_price_id", columnList = "price, id"),
+		@Index(name = "idx_products_updated_at_id", columnList = "updated_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -36,4 +42,9 @@ public class Product {
 	private Double price;
 
 	private Double discount;
+
+	// Set on insert and every update, including the JDBC stock decrement; drives incremental exports
+	@UpdateTimestamp
+	@Column(name = "updated_at")
+	private LocalDateTime updatedAt;
 }
@@ -0,0 +1,20 @@
+package com.yfdecor.monitoring;
+
+import org.hibernate.Interceptor;
+import org.hibernate.type.Type;
+
+/**
+ * Counts entities hydrated for the current request, which exposes N+1 loads that a
+ * statement count alone can hide behind batching.
+ */
+public class EntityLoadCountingInterceptor implements Interceptor {
+
+	@Override
+	public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+		RequestStats stats = RequestStats.current();
+		if (stats != null) {
+			stats.recordEntityLoad();
+		}
+		return false;
+	}
+}
@@ -0,0 +1,92 @@
+package com.yfdecor.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records per-endpoint SQL statement counts, JDBC time, connection wait and entity loads,
+ * and writes one structured log line for requests slower than the configured threshold.
+ * Endpoint latency histograms come from Spring's own {@code http.server.requests} timer.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+	private static final String UNKNOWN_URI = "UNKNOWN";
+
+	private final Meter.MeterProvider<DistributionSummary> statements;
+	private final Meter.MeterProvider<Timer> jdbcTime;
+	private final Meter.MeterProvider<Timer> connectionWait;
+	private final Meter.MeterProvider<DistributionSummary> entityLoads;
+	private final long slowRequestNanos;
+
+	public RequestMetricsFilter(MeterRegistry registry,
+			@Value("${monitoring.slow-request-threshold:PT0.5S}") Duration slowRequestThreshold) {
+		this.statements = DistributionSummary.builder("app.request.sql.statements")
+				.description("JDBC statements and batches executed per request")
+				.withRegistry(registry);
+		this.jdbcTime = Timer.builder("app.request.jdbc.time")
+				.description("Time spent executing JDBC statements per request")
+				.withRegistry(registry);
+		this.connectionWait = Timer.builder("app.request.connection.wait")
+				.description("Time spent waiting for pooled connections per request")
+				.withRegistry(registry);
+		this.entityLoads = DistributionSummary.builder("app.request.entity.loads")
+				.description("Entities hydrated by Hibernate per request")
+				.withRegistry(registry);
+		this.slowRequestNanos = slowRequestThreshold.toNanos();
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		RequestStats stats = RequestStats.begin();
+		long start = System.nanoTime();
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			long elapsed = System.nanoTime() - start;
+			RequestStats.end();
+			record(request, response, stats, elapsed);
+		}
+	}
+
+	private void record(HttpServletRequest request, HttpServletResponse response, RequestStats stats, long elapsed) {
+		Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+		String uri = pattern != null ? pattern.toString() : UNKNOWN_URI;
+		Tags tags = Tags.of("method", request.getMethod(), "uri", uri);
+
+		statements.withTags(tags).record(stats.getStatements());
+		jdbcTime.withTags(tags).record(stats.getJdbcNanos(), TimeUnit.NANOSECONDS);
+		connectionWait.withTags(tags).record(stats.getConnectionWaitNanos(), TimeUnit.NANOSECONDS);
+		entityLoads.withTags(tags).record(stats.getEntityLoads());
+
+		if (elapsed >= slowRequestNanos) {
+			log.warn("slow_request method={} uri={} path={} status={} duration_ms={} sql_statements={} jdbc_ms={} "
+							+ "connections={} connection_wait_ms={} entity_loads={}",
+					request.getMethod(), uri, request.getRequestURI(), response.getStatus(),
+					TimeUnit.NANOSECONDS.toMillis(elapsed), stats.getStatements(),
+					TimeUnit.NANOSECONDS.toMillis(stats.getJdbcNanos()), stats.getConnectionAcquisitions(),
+					TimeUnit.NANOSECONDS.toMillis(stats.getConnectionWaitNanos()), stats.getEntityLoads());
+		}
+	}
+}
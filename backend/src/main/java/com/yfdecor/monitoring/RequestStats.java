@@ -0,0 +1,66 @@
+package com.yfdecor.monitoring;
+
+/**
+ * Database work done while handling one HTTP request. Bound to the request thread by
+ * {@link RequestMetricsFilter} and fed by {@link RequestStatsDataSource} and
+ * {@link EntityLoadCountingInterceptor}; work outside a request is not recorded. The
+ * benchmarks bind one around each invocation the same way.
+ */
+public final class RequestStats {
+
+	private static final ThreadLocal<RequestStats> CURRENT = new ThreadLocal<>();
+
+	private int statements;
+	private long jdbcNanos;
+	private int connectionAcquisitions;
+	private long connectionWaitNanos;
+	private int entityLoads;
+
+	public static RequestStats begin() {
+		RequestStats stats = new RequestStats();
+		CURRENT.set(stats);
+		return stats;
+	}
+
+	public static void end() {
+		CURRENT.remove();
+	}
+
+	static RequestStats current() {
+		return CURRENT.get();
+	}
+
+	void recordStatement(long nanos) {
+		statements++;
+		jdbcNanos += nanos;
+	}
+
+	void recordConnectionAcquisition(long nanos) {
+		connectionAcquisitions++;
+		connectionWaitNanos += nanos;
+	}
+
+	void recordEntityLoad() {
+		entityLoads++;
+	}
+
+	public int getStatements() {
+		return statements;
+	}
+
+	public long getJdbcNanos() {
+		return jdbcNanos;
+	}
+
+	public int getConnectionAcquisitions() {
+		return connectionAcquisitions;
+	}
+
+	public long getConnectionWaitNanos() {
+		return connectionWaitNanos;
+	}
+
+	public int getEntityLoads() {
+		return entityLoads;
+	}
+}
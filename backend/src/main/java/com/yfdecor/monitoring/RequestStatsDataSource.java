@@ -0,0 +1,95 @@
+package com.yfdecor.monitoring;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * Counts and times every statement executed on connections borrowed from the wrapped pool,
+ * so {@link RequestStats} sees JdbcTemplate work as well as Hibernate's. Batches count as
+ * one statement, matching what the database round trips are.
+ *
+ * Sitting behind the lazy connection proxy, this is also where a transaction actually
+ * waits for the pool, so connection acquisition is timed here rather than in Hibernate,
+ * which only ever sees the proxy hand out a lazy handle.
+ */
+public class RequestStatsDataSource extends DelegatingDataSource {
+
+	private static final Set<String> STATEMENT_FACTORIES = Set.of("createStatement", "prepareStatement", "prepareCall");
+
+	public RequestStatsDataSource(DataSource targetDataSource) {
+		super(targetDataSource);
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		long start = System.nanoTime();
+		Connection connection = super.getConnection();
+		recordAcquisition(start);
+		return wrapConnection(connection);
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		long start = System.nanoTime();
+		Connection connection = super.getConnection(username, password);
+		recordAcquisition(start);
+		return wrapConnection(connection);
+	}
+
+	private static void recordAcquisition(long start) {
+		RequestStats stats = RequestStats.current();
+		if (stats != null) {
+			stats.recordConnectionAcquisition(System.nanoTime() - start);
+		}
+	}
+
+	private static Connection wrapConnection(Connection connection) {
+		return (Connection) Proxy.newProxyInstance(RequestStatsDataSource.class.getClassLoader(),
+				new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+					Object result = invoke(proxy, connection, method, args);
+					if (result instanceof Statement statement && STATEMENT_FACTORIES.contains(method.getName())) {
+						return wrapStatement(statement, method.getReturnType());
+					}
+					return result;
+				});
+	}
+
+	private static Object wrapStatement(Statement statement, Class<?> type) {
+		return Proxy.newProxyInstance(RequestStatsDataSource.class.getClassLoader(), new Class<?>[]{type},
+				(proxy, method, args) -> {
+					RequestStats stats = RequestStats.current();
+					if (stats == null || !method.getName().startsWith("execute")) {
+						return invoke(proxy, statement, method, args);
+					}
+					long start = System.nanoTime();
+					try {
+						return invoke(proxy, statement, method, args);
+					} finally {
+						stats.recordStatement(System.nanoTime() - start);
+					}
+				});
+	}
+
+	private static Object invoke(Object proxy, Object target, Method method, Object[] args) throws Throwable {
+		switch (method.getName()) {
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			default:
+				try {
+					return method.invoke(target, args);
+				} catch (InvocationTargetException ex) {
+					throw ex.getTargetException();
+				}
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package com.yfdecor.order;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Time-ordered order numbers, unique across instances without touching the database.
+ * Each id packs 41 bits of milliseconds since 2024-01-01 (good for ~69 years), a 10-bit
+ * node id and a 12-bit per-millisecond sequence, rendered as "YF" + base36.
+ *
+ * Timestamp and sequence share one AtomicLong updated by CAS, so concurrent callers never
+ * block on each other. An id never carries a timestamp ahead of the wall clock: when a
+ * millisecond's 4096 sequence values run out, or the clock steps backwards, callers wait
+ * for the clock to pass the last timestamp issued. Nothing is persisted, so that is what
+ * keeps a restarted instance from reissuing ids handed out just before it stopped.
+ *
+ * Uniqueness across instances depends on each one running with a distinct
+ * {@code order.number.node-id}, which is required.
+ */
+@Component
+public class OrderNumberGenerator {
+
+	static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+	static final int NODE_BITS = 10;
+	static final int SEQUENCE_BITS = 12;
+	static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+	static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+	private static final String PREFIX = "YF";
+
+	private final long nodeBits;
+	private final LongSupplier clock;
+	/** Last issued (timestamp << SEQUENCE_BITS | sequence). */
+	private final AtomicLong state = new AtomicLong();
+
+	@Autowired
+	public OrderNumberGenerator(@Value("${order.number.node-id:#{null}}") Long nodeId) {
+		this(requireNodeId(nodeId), System::currentTimeMillis);
+	}
+
+	OrderNumberGenerator(long nodeId, LongSupplier clock) {
+		if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+			throw new IllegalArgumentException("order.number.node-id must be between 0 and " + MAX_NODE_ID);
+		}
+		this.nodeBits = nodeId << SEQUENCE_BITS;
+		this.clock = clock;
+	}
+
+	public String nextOrderNumber() {
+		return PREFIX + Long.toString(nextId(), 36).toUpperCase();
+	}
+
+	public long nextId() {
+		while (true) {
+			long previous = state.get();
+			long previousTime = previous >>> SEQUENCE_BITS;
+			long now = clock.getAsLong() - EPOCH_MILLIS;
+			long next;
+			if (now > previousTime) {
+				next = now << SEQUENCE_BITS;
+			} else if (now == previousTime && (previous & SEQUENCE_MASK) < SEQUENCE_MASK) {
+				next = previous + 1;
+			} else if (now == previousTime) {
+				// Sequence exhausted for this millisecond; the next one is less than 1ms away.
+				Thread.onSpinWait();
+				continue;
+			} else {
+				LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(previousTime - now));
+				continue;
+			}
+			if (state.compareAndSet(previous, next)) {
+				long timestamp = next >>> SEQUENCE_BITS;
+				return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | (next & SEQUENCE_MASK);
+			}
+		}
+	}
+
+	private static long requireNodeId(Long nodeId) {
+		if (nodeId == null) {
+			throw new IllegalStateException("order.number.node-id must be set to a value between 0 and "
+					+ MAX_NODE_ID + ", distinct for every running instance");
+		}
+		return nodeId;
+	}
+}
@@ -0,0 +1,44 @@
+package com.yfdecor.outbox;
+
+import com.yfdecor.event.OrderPlacedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sales counters for placed orders. Delivery is at-least-once, so a retried event can be
+ * counted twice; these are operational metrics, not accounting.
+ */
+@Component
+public class OrderAnalyticsHandler implements OutboxEventHandler<OrderPlacedEvent> {
+
+	private final Counter orders;
+	private final Counter units;
+	private final DistributionSummary orderValue;
+
+	public OrderAnalyticsHandler(MeterRegistry registry) {
+		this.orders = Counter.builder("orders.placed").description("Orders placed").register(registry);
+		this.units = Counter.builder("orders.units").description("Units sold").register(registry);
+		this.orderValue = DistributionSummary.builder("orders.value")
+				.description("Order total including delivery")
+				.register(registry);
+	}
+
+	@Override
+	public String name() {
+		return "order-analytics";
+	}
+
+	@Override
+	public Class<OrderPlacedEvent> payloadType() {
+		return OrderPlacedEvent.class;
+	}
+
+	@Override
+	public void handle(OrderPlacedEvent event) {
+		orders.increment();
+		units.increment(event.getQuantities().values().stream().mapToInt(Integer::intValue).sum());
+		orderValue.record(event.getTotalAmount() + event.getDeliveryCharge());
+	}
+}
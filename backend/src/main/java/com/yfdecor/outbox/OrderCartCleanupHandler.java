@@ -0,0 +1,34 @@
+package com.yfdecor.outbox;
+
+import com.yfdecor.cart.CartStore;
+import com.yfdecor.event.OrderPlacedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Removes the ordered products from the buyer's cart. Only those lines are removed, so items
+ * added after checkout survive, and repeating the removal is harmless.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderCartCleanupHandler implements OutboxEventHandler<OrderPlacedEvent> {
+
+	private final CartStore cartStore;
+
+	@Override
+	public String name() {
+		return "order-cart-cleanup";
+	}
+
+	@Override
+	public Class<OrderPlacedEvent> payloadType() {
+		return OrderPlacedEvent.class;
+	}
+
+	@Override
+	@Transactional
+	public void handle(OrderPlacedEvent event) {
+		cartStore.removeProducts(event.getUserId(), event.getQuantities().keySet());
+	}
+}
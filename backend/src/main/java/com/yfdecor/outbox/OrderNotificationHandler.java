@@ -0,0 +1,30 @@
+package com.yfdecor.outbox;
+
+import com.yfdecor.event.OrderPlacedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Order confirmation for the buyer. No mail transport is configured yet, so this logs the
+ * confirmation; a sender plugs in here without touching checkout.
+ */
+@Slf4j
+@Component
+public class OrderNotificationHandler implements OutboxEventHandler<OrderPlacedEvent> {
+
+	@Override
+	public String name() {
+		return "order-notification";
+	}
+
+	@Override
+	public Class<OrderPlacedEvent> payloadType() {
+		return OrderPlacedEvent.class;
+	}
+
+	@Override
+	public void handle(OrderPlacedEvent event) {
+		log.info("Order confirmation {} for {}: total {} incl. delivery {}", event.getOrderNumber(),
+				event.getEmail(), event.getTotalAmount(), event.getDeliveryCharge());
+	}
+}
@@ -0,0 +1,227 @@
+package com.yfdecor.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yfdecor.model.OutboxEvent;
+import com.yfdecor.repository.OutboxEventRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Drains the outbox: claims due rows in batches, runs each on a virtual thread and records
+ * the outcome. Concurrency is capped by a semaphore, so a burst of orders queues in the
+ * table rather than in memory. Failed rows are retried with exponential backoff and marked
+ * dead after the last attempt; rows whose lease ran out (e.g. a crash mid-handler) are
+ * claimed again.
+ */
+@Slf4j
+@Component
+public class OutboxDispatcher {
+
+	private static final List<String> DUE_STATUSES = List.of(OutboxEvent.PENDING, OutboxEvent.PROCESSING);
+	private static final int MAX_ERROR_LENGTH = 1000;
+
+	private final OutboxEventRepository outboxRepository;
+	private final TransactionTemplate transactionTemplate;
+	private final ObjectMapper objectMapper;
+	private final Map<String, OutboxEventHandler<?>> handlers = new LinkedHashMap<>();
+	private final int batchSize;
+	private final int maxAttempts;
+	private final Duration lease;
+	private final Duration initialBackoff;
+	private final Duration maxBackoff;
+	private final Duration retention;
+	private final Semaphore permits;
+	private final ExecutorService workers =
+			Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("outbox-", 0).factory());
+	private final AtomicBoolean draining = new AtomicBoolean();
+
+	public OutboxDispatcher(OutboxEventRepository outboxRepository,
+			TransactionTemplate transactionTemplate,
+			ObjectMapper objectMapper,
+			List<OutboxEventHandler<?>> handlers,
+			@Value("${outbox.batch-size:100}") int batchSize,
+			@Value("${outbox.concurrency:16}") int concurrency,
+			@Value("${outbox.max-attempts:8}") int maxAttempts,
+			@Value("${outbox.lease:PT2M}") Duration lease,
+			@Value("${outbox.initial-backoff:PT5S}") Duration initialBackoff,
+			@Value("${outbox.max-backoff:PT30M}") Duration maxBackoff,
+			@Value("${outbox.retention:P7D}") Duration retention) {
+		this.outboxRepository = outboxRepository;
+		this.transactionTemplate = transactionTemplate;
+		this.objectMapper = objectMapper;
+		for (OutboxEventHandler<?> handler : handlers) {
+			if (this.handlers.putIfAbsent(handler.name(), handler) != null) {
+				throw new IllegalStateException("Duplicate outbox handler name " + handler.name());
+			}
+		}
+		this.batchSize = batchSize;
+		this.maxAttempts = maxAttempts;
+		this.lease = lease;
+		this.initialBackoff = initialBackoff;
+		this.maxBackoff = maxBackoff;
+		this.retention = retention;
+		this.permits = new Semaphore(concurrency);
+	}
+
+	List<String> handlersFor(Class<?> payloadType) {
+		List<String> names = new ArrayList<>();
+		for (OutboxEventHandler<?> handler : handlers.values()) {
+			if (handler.payloadType().equals(payloadType)) {
+				names.add(handler.name());
+			}
+		}
+		return names;
+	}
+
+	/**
+	 * Starts a drain right away instead of waiting for the next poll.
+	 */
+	void wakeUp() {
+		try {
+			workers.execute(this::drain);
+		} catch (RejectedExecutionException e) {
+			// Shutting down; the rows are picked up by the next instance to poll.
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${outbox.poll-interval-ms:1000}")
+	public void poll() {
+		drain();
+	}
+
+	@Scheduled(fixedDelayString = "${outbox.purge-interval-ms:3600000}")
+	public void purgeProcessed() {
+		int purged = outboxRepository.deleteProcessedBefore(OutboxEvent.DONE, LocalDateTime.now().minus(retention));
+		if (purged > 0) {
+			log.debug("Purged {} processed outbox events", purged);
+		}
+	}
+
+	private void drain() {
+		if (!draining.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			int claimed;
+			do {
+				int capacity = Math.min(batchSize, permits.availablePermits());
+				if (capacity == 0) {
+					return;
+				}
+				List<OutboxEvent> batch = claim(capacity);
+				for (OutboxEvent event : batch) {
+					permits.acquireUninterruptibly();
+					try {
+						workers.execute(() -> process(event));
+					} catch (RejectedExecutionException e) {
+						permits.release();
+						return;
+					}
+				}
+				claimed = batch.size();
+			} while (claimed == batchSize);
+		} finally {
+			draining.set(false);
+		}
+	}
+
+	/**
+	 * Marks due rows as processing under a lease and counts the attempt up front, so a
+	 * handler that crashes the process still reaches the dead-letter state eventually:
+	 * a row whose lease ran out on its last attempt is marked dead here instead of being
+	 * leased again.
+	 */
+	private List<OutboxEvent> claim(int limit) {
+		return transactionTemplate.execute(status -> {
+			LocalDateTime now = LocalDateTime.now();
+			List<OutboxEvent> due = outboxRepository.findDueForUpdate(DUE_STATUSES, now, PageRequest.of(0, limit));
+			List<OutboxEvent> claimed = new ArrayList<>(due.size());
+			for (OutboxEvent event : due) {
+				if (event.getAttempts() >= maxAttempts) {
+					log.error("Outbox event {} ({} for {} {}) dead after {} attempts: lease expired", event.getId(),
+							event.getHandler(), event.getEventType(), event.getAggregateId(), event.getAttempts());
+					event.setStatus(OutboxEvent.DEAD);
+					event.setLastError("Lease expired on final attempt");
+					continue;
+				}
+				event.setStatus(OutboxEvent.PROCESSING);
+				event.setAttempts(event.getAttempts() + 1);
+				event.setNextAttemptAt(now.plus(lease));
+				claimed.add(event);
+			}
+			return claimed;
+		});
+	}
+
+	private void process(OutboxEvent event) {
+		try {
+			OutboxEventHandler<?> handler = handlers.get(event.getHandler());
+			if (handler == null) {
+				throw new IllegalStateException("No outbox handler named " + event.getHandler());
+			}
+			invoke(handler, event.getPayload());
+			outboxRepository.markDone(event.getId(), LocalDateTime.now());
+		} catch (Exception e) {
+			fail(event, e);
+		} finally {
+			permits.release();
+		}
+	}
+
+	private <T> void invoke(OutboxEventHandler<T> handler, String payload) throws Exception {
+		handler.handle(objectMapper.readValue(payload, handler.payloadType()));
+	}
+
+	private void fail(OutboxEvent event, Exception cause) {
+		String error = cause.getClass().getSimpleName() + ": " + cause.getMessage();
+		if (error.length() > MAX_ERROR_LENGTH) {
+			error = error.substring(0, MAX_ERROR_LENGTH);
+		}
+		int attempts = event.getAttempts();
+		if (attempts >= maxAttempts) {
+			log.error("Outbox event {} ({} for {} {}) dead after {} attempts: {}", event.getId(), event.getHandler(),
+					event.getEventType(), event.getAggregateId(), attempts, error);
+			outboxRepository.reschedule(event.getId(), OutboxEvent.DEAD, event.getNextAttemptAt(), error);
+			return;
+		}
+		LocalDateTime retryAt = LocalDateTime.now().plus(backoff(attempts));
+		log.warn("Outbox event {} ({}) failed attempt {}, retrying at {}: {}", event.getId(), event.getHandler(),
+				attempts, retryAt, error);
+		outboxRepository.reschedule(event.getId(), OutboxEvent.PENDING, retryAt, error);
+	}
+
+	/**
+	 * Exponential backoff with up to 20% jitter so failures from one outage do not all retry
+	 * in the same instant.
+	 */
+	private Duration backoff(int attempts) {
+		long millis = initialBackoff.toMillis() << Math.min(attempts - 1, 30);
+		millis = Math.min(millis, maxBackoff.toMillis());
+		return Duration.ofMillis(millis + ThreadLocalRandom.current().nextLong(millis / 5 + 1));
+	}
+
+	@PreDestroy
+	public void shutdown() throws InterruptedException {
+		workers.shutdown();
+		workers.awaitTermination(10, TimeUnit.SECONDS);
+	}
+}
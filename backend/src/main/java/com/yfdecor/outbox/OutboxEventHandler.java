@@ -0,0 +1,18 @@
+package com.yfdecor.outbox;
+
+/**
+ * Reacts to one type of outbox payload. Each handler gets its own outbox row per event, so
+ * retries and dead-lettering are tracked per handler. Handlers run at least once and must
+ * tolerate being repeated.
+ */
+public interface OutboxEventHandler<T> {
+
+	/**
+	 * Stable name stored on the outbox row; renaming a handler orphans its pending rows.
+	 */
+	String name();
+
+	Class<T> payloadType();
+
+	void handle(T payload) throws Exception;
+}
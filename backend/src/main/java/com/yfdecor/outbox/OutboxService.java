@@ -0,0 +1,67 @@
+package com.yfdecor.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yfdecor.model.OutboxEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Writes outbox rows inside the caller's transaction, so an event exists exactly when the
+ * change that raised it commits, and wakes the dispatcher once that commit has happened.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+	private static final String INSERT_EVENT = "INSERT INTO outbox_events "
+			+ "(event_type, handler, aggregate_id, payload, status, attempts, next_attempt_at, created_at) "
+			+ "VALUES (?, ?, ?, ?, ?, 0, ?, ?)";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final ObjectMapper objectMapper;
+	private final OutboxDispatcher dispatcher;
+
+	/**
+	 * Appends one row per handler subscribed to the payload's type, in a single batch.
+	 */
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void append(Long aggregateId, Object payload) {
+		List<String> handlers = dispatcher.handlersFor(payload.getClass());
+		if (handlers.isEmpty()) {
+			return;
+		}
+		String json;
+		try {
+			json = objectMapper.writeValueAsString(payload);
+		} catch (JsonProcessingException e) {
+			throw new IllegalArgumentException("Unserializable outbox payload " + payload.getClass().getName(), e);
+		}
+		String eventType = payload.getClass().getSimpleName();
+		Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+		jdbcTemplate.batchUpdate(INSERT_EVENT, handlers, handlers.size(), (ps, handler) -> {
+			ps.setString(1, eventType);
+			ps.setString(2, handler);
+			ps.setLong(3, aggregateId);
+			ps.setString(4, json);
+			ps.setString(5, OutboxEvent.PENDING);
+			ps.setTimestamp(6, now);
+			ps.setTimestamp(7, now);
+		});
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				dispatcher.wakeUp();
+			}
+		});
+	}
+}
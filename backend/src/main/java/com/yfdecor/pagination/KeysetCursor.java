@@ -0,0 +1,69 @@
+
+package com.yfdecor.pagination;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque position in an {@code (id)} or {@code (price, id)} ordered listing. Encoded as
+ * url-safe base64 so clients treat it as a token rather than something to construct.
+ */
+@Getter
+public class KeysetCursor {
+
+	public static final String SORT_ID = "id";
+	public static final String SORT_PRICE = "price";
+
+	private final String sort;
+	private final Double price;
+	private final Long id;
+
+	private KeysetCursor(String sort, Double price, Long id) {
+		this.sort = sort;
+		this.price = price;
+		this.id = id;
+	}
+
+	public static KeysetCursor afterId(Long id) {
+		return new KeysetCursor(SORT_ID, null, id);
+	}
+
+	public static KeysetCursor afterPrice(Double price, Long id) {
+		return new KeysetCursor(SORT_PRICE, price, id);
+	}
+
+	public String encode() {
+		String raw = SORT_PRICE.equals(sort) ? sort + ":" + price + ":" + id : sort + ":" + id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Decodes a token produced by {@link #encode()}; returns {@code null} for a blank token,
+	 * which callers treat as the first page.
+	 */
+	public static KeysetCursor decode(String token, String expectedSort) {
+		if (token == null || token.isBlank()) {
+			return null;
+		}
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			String[] parts = raw.split(":");
+			if (!parts[0].equals(expectedSort)) {
+				throw new IllegalArgumentException("Cursor sort mismatch");
+			}
+			if (SORT_PRICE.equals(expectedSort) && parts.length == 3) {
+				return afterPrice(Double.valueOf(parts[1]), Long.valueOf(parts[2]));
+			}
+			if (SORT_ID.equals(expectedSort) && parts.length == 2) {
+				return afterId(Long.valueOf(parts[1]));
+			}
+			throw new IllegalArgumentException("Malformed cursor");
+		} catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+		}
+	}
+}
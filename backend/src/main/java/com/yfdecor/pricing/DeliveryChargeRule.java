@@ -0,0 +1,28 @@
+package com.yfdecor.pricing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Flat delivery charge, waived once the goods total after discounts reaches the threshold.
+ */
+@Component
+@Order(300)
+public class DeliveryChargeRule implements PricingRule {
+
+	private final long freeThresholdCents;
+	private final long chargeCents;
+
+	public DeliveryChargeRule(@Value("${pricing.delivery.free-threshold:999}") double freeThreshold,
+			@Value("${pricing.delivery.charge:99}") double charge) {
+		this.freeThresholdCents = Money.toCents(freeThreshold);
+		this.chargeCents = Money.toCents(charge);
+	}
+
+	@Override
+	public void apply(PriceSheet sheet) {
+		boolean free = sheet.size() == 0 || sheet.getItemsTotal() >= freeThresholdCents;
+		sheet.setDeliveryCharge(free ? 0 : chargeCents);
+	}
+}
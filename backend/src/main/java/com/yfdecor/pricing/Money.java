@@ -0,0 +1,26 @@
+package com.yfdecor.pricing;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Conversions between the Double amounts stored in entities and DTOs and the long minor
+ * units (paise/cents) the pricing engine computes in. Amounts are rounded half-up to
+ * two decimals on the way in; every sum after that is exact.
+ */
+public final class Money {
+
+	private Money() {
+	}
+
+	public static long toCents(Double amount) {
+		if (amount == null) {
+			return 0;
+		}
+		return BigDecimal.valueOf(amount).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+	}
+
+	public static double toAmount(long cents) {
+		return cents / 100.0;
+	}
+}
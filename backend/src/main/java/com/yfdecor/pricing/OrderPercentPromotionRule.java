@@ -0,0 +1,35 @@
+package com.yfdecor.pricing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Store-wide promotion: a percentage off the discounted goods total once it reaches a
+ * minimum, rounded down to the minor unit. Disabled while the percentage is zero.
+ */
+@Component
+@Order(200)
+public class OrderPercentPromotionRule implements PricingRule {
+
+	private final long basisPoints;
+	private final long minimumCents;
+
+	public OrderPercentPromotionRule(@Value("${pricing.promotion.percent-off:0}") double percentOff,
+			@Value("${pricing.promotion.min-subtotal:0}") double minimum) {
+		if (percentOff < 0 || percentOff > 100) {
+			throw new IllegalArgumentException("pricing.promotion.percent-off must be between 0 and 100");
+		}
+		this.basisPoints = Math.round(percentOff * 100);
+		this.minimumCents = Money.toCents(minimum);
+	}
+
+	@Override
+	public void apply(PriceSheet sheet) {
+		long itemsTotal = sheet.getItemsTotal();
+		if (basisPoints == 0 || itemsTotal < minimumCents) {
+			return;
+		}
+		sheet.addPromotion(Math.multiplyExact(itemsTotal, basisPoints) / 10_000);
+	}
+}
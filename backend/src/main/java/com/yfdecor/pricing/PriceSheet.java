@@ -0,0 +1,150 @@
+package com.yfdecor.pricing;
+
+import java.util.Arrays;
+
+/**
+ * A cart being priced, held in parallel primitive arrays so a whole cart is priced without
+ * boxing or per-line objects. All amounts are in minor units. Lines are added first, then
+ * {@link PricingEngine} runs its rules over the sheet; rules fill in the per-line discounts
+ * and the order-level adjustments.
+ */
+public final class PriceSheet {
+
+	private int size;
+	private long[] unitPrice;
+	private long[] productDiscount;
+	private long[] unitDiscount;
+	private int[] quantity;
+
+	private long listTotal;
+	private long discountTotal;
+	private long promotionTotal;
+	private long deliveryCharge;
+
+	public PriceSheet(int expectedLines) {
+		int capacity = Math.max(expectedLines, 1);
+		this.unitPrice = new long[capacity];
+		this.productDiscount = new long[capacity];
+		this.unitDiscount = new long[capacity];
+		this.quantity = new int[capacity];
+	}
+
+	/**
+	 * Adds a line at list price. The product's own per-unit discount is recorded but only
+	 * applied once the product discount rule runs. Returns the line index.
+	 */
+	public int addLine(long unitPriceCents, long productDiscountCents, int lineQuantity) {
+		if (unitPriceCents < 0 || lineQuantity < 0) {
+			throw new IllegalArgumentException("Negative price or quantity");
+		}
+		if (size == unitPrice.length) {
+			int capacity = size * 2;
+			unitPrice = Arrays.copyOf(unitPrice, capacity);
+			productDiscount = Arrays.copyOf(productDiscount, capacity);
+			unitDiscount = Arrays.copyOf(unitDiscount, capacity);
+			quantity = Arrays.copyOf(quantity, capacity);
+		}
+		unitPrice[size] = unitPriceCents;
+		productDiscount[size] = productDiscountCents;
+		unitDiscount[size] = 0;
+		quantity[size] = lineQuantity;
+		listTotal = Math.addExact(listTotal, Math.multiplyExact(unitPriceCents, (long) lineQuantity));
+		return size++;
+	}
+
+	/**
+	 * Clears the sheet for reuse without reallocating.
+	 */
+	public void reset() {
+		size = 0;
+		listTotal = 0;
+		discountTotal = 0;
+		promotionTotal = 0;
+		deliveryCharge = 0;
+	}
+
+	/**
+	 * Drops everything the rules applied, keeping the lines, so a sheet can be priced again.
+	 */
+	void clearAdjustments() {
+		Arrays.fill(unitDiscount, 0, size, 0);
+		discountTotal = 0;
+		promotionTotal = 0;
+		deliveryCharge = 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public long unitPrice(int line) {
+		return unitPrice[line];
+	}
+
+	public long productDiscount(int line) {
+		return productDiscount[line];
+	}
+
+	/**
+	 * Per-unit discount actually applied to the line.
+	 */
+	public long unitDiscount(int line) {
+		return unitDiscount[line];
+	}
+
+	public int quantity(int line) {
+		return quantity[line];
+	}
+
+	/**
+	 * Unit price after the applied discount.
+	 */
+	public long unitNetPrice(int line) {
+		return unitPrice[line] - unitDiscount[line];
+	}
+
+	public long lineTotal(int line) {
+		return Math.multiplyExact(unitNetPrice(line), (long) quantity[line]);
+	}
+
+	void setUnitDiscount(int line, long discount) {
+		long change = Math.multiplyExact(discount - unitDiscount[line], (long) quantity[line]);
+		discountTotal = Math.addExact(discountTotal, change);
+		unitDiscount[line] = discount;
+	}
+
+	void addPromotion(long amount) {
+		promotionTotal = Math.addExact(promotionTotal, amount);
+	}
+
+	void setDeliveryCharge(long amount) {
+		deliveryCharge = amount;
+	}
+
+	public long getListTotal() {
+		return listTotal;
+	}
+
+	public long getDiscountTotal() {
+		return discountTotal;
+	}
+
+	public long getPromotionTotal() {
+		return promotionTotal;
+	}
+
+	/**
+	 * Goods total after product discounts and promotions, before delivery.
+	 */
+	public long getItemsTotal() {
+		return listTotal - discountTotal - promotionTotal;
+	}
+
+	public long getDeliveryCharge() {
+		return deliveryCharge;
+	}
+
+	public long getGrandTotal() {
+		return getItemsTotal() + deliveryCharge;
+	}
+}
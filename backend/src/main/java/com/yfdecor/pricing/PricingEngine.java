@@ -0,0 +1,27 @@
+package com.yfdecor.pricing;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Prices a {@link PriceSheet} by running every {@link PricingRule} bean in order. New
+ * discounts or promotions are added as rules rather than as branches in checkout code.
+ */
+@Component
+public class PricingEngine {
+
+	private final PricingRule[] rules;
+
+	public PricingEngine(List<PricingRule> rules) {
+		this.rules = rules.toArray(new PricingRule[0]);
+	}
+
+	public PriceSheet price(PriceSheet sheet) {
+		sheet.clearAdjustments();
+		for (PricingRule rule : rules) {
+			rule.apply(sheet);
+		}
+		return sheet;
+	}
+}
@@ -0,0 +1,11 @@
+package com.yfdecor.pricing;
+
+/**
+ * One step of cart pricing. Rules run in {@link org.springframework.core.annotation.Order}
+ * order over the same {@link PriceSheet}: line discounts first, then order-level
+ * promotions, then delivery, which depends on the discounted total.
+ */
+public interface PricingRule {
+
+	void apply(PriceSheet sheet);
+}
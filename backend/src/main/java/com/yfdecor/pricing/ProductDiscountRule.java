@@ -0,0 +1,20 @@
+package com.yfdecor.pricing;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies each product's per-unit discount amount, never taking a unit below zero.
+ */
+@Component
+@Order(100)
+public class ProductDiscountRule implements PricingRule {
+
+	@Override
+	public void apply(PriceSheet sheet) {
+		for (int line = 0; line < sheet.size(); line++) {
+			long discount = Math.min(Math.max(sheet.productDiscount(line), 0), sheet.unitPrice(line));
+			sheet.setUnitDiscount(line, discount);
+		}
+	}
+}
@@ -1,12 +1,17 @@
 
 package com.yfdecor.repository;
 
+import com.yfdecor.cart.CartLine;
 import com.yfdecor.model.CartItem;
 import com.yfdecor.model.Product;
 import com.yfdecor.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,5 +19,23 @@ import java.util.Optional;
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
 	List<CartItem> findByUser(User user);
 	Optional<CartItem> findByUserAndProduct(User user, Product product);
-	void deleteByUser(User user);
+
+	@Query("select new com.yfdecor.cart.CartLine(c.id, c.product.id, c.quantity) from CartItem c where c.user.id = :userId")
+	List<CartLine> findLinesByUserId(@Param("userId") Long userId);
+
+	@Query("select new com.yfdecor.cart.CartLine(c.id, c.product.id, c.quantity) from CartItem c "
+			+ "where c.user.id = :userId and c.product.id = :productId")
+	Optional<CartLine> findLineByUserIdAndProductId(@Param("userId") Long userId, @Param("productId") Long productId);
+
+	@Query("select new com.yfdecor.cart.CartLine(c.id, c.product.id, c.quantity) from CartItem c "
+			+ "where c.id = :id and c.user.id = :userId")
+	Optional<CartLine> findLineByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+	@Modifying
+	@Query("delete from CartItem c where c.user = :user")
+	void deleteByUser(@Param("user") User user);
+
+	@Modifying
+	@Query("delete from CartItem c where c.user.id = :userId and c.product.id in :productIds")
+	void deleteByUserIdAndProductIds(@Param("userId") Long userId, @Param("productIds") Collection<Long> productIds);
 }
@@ -0,0 +1,68 @@
+package com.yfdecor.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Forward-only read of the whole catalog for exports. Rows are handed to the callback as the
+ * driver produces them, so memory stays flat however many products there are. On MySQL the
+ * statement uses Connector/J's streaming mode (fetch size {@link Integer#MIN_VALUE}); other
+ * drivers get a regular fetch size.
+ */
+@Repository
+public class CatalogExportJdbcRepository {
+
+	private static final String SELECT =
+			"SELECT p.id, p.name, p.slug, p.description, p.image_url, p.stock, p.price, p.discount, p.updated_at, "
+					+ "c.id AS category_id, c.slug AS category_slug, c.name AS category_name "
+					+ "FROM products p JOIN categories c ON c.id = p.category_id";
+	private static final String ALL = SELECT + " ORDER BY p.id";
+	// Served by idx_products_updated_at_id
+	private static final String UPDATED_SINCE = SELECT + " WHERE p.updated_at >= ? ORDER BY p.updated_at, p.id";
+	private static final String LATEST_UPDATE = "SELECT MAX(updated_at) FROM products";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final int fetchSize;
+
+	public CatalogExportJdbcRepository(JdbcTemplate jdbcTemplate,
+			@Value("${catalog.export.fetch-size:1000}") int fetchSize) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.fetchSize = fetchSize;
+	}
+
+	/**
+	 * Streams every product, or only those updated at or after {@code updatedSince}, to the handler.
+	 */
+	public void streamProducts(LocalDateTime updatedSince, RowCallbackHandler handler) {
+		jdbcTemplate.query(con -> {
+			PreparedStatement ps = con.prepareStatement(updatedSince == null ? ALL : UPDATED_SINCE,
+					ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			ps.setFetchSize(isMySql(con) ? Integer.MIN_VALUE : fetchSize);
+			if (updatedSince != null) {
+				ps.setTimestamp(1, Timestamp.valueOf(updatedSince));
+			}
+			return ps;
+		}, handler);
+	}
+
+	/**
+	 * The newest {@code updated_at} among the products, or null when there are none.
+	 */
+	public LocalDateTime findLatestUpdate() {
+		Timestamp latest = jdbcTemplate.queryForObject(LATEST_UPDATE, Timestamp.class);
+		return latest == null ? null : latest.toLocalDateTime();
+	}
+
+	private static boolean isMySql(Connection con) throws SQLException {
+		return "MySQL".equalsIgnoreCase(con.getMetaData().getDatabaseProductName());
+	}
+}
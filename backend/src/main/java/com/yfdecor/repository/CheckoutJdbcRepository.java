@@ -0,0 +1,96 @@
+
+package com.yfdecor.repository;
+
+import com.yfdecor.model.OrderItem;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Set-based statements for the checkout path. They join the surrounding JPA transaction,
+ * so a failed stock decrement rolls back the order insert with it.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CheckoutJdbcRepository {
+
+	private static final String DECREMENT_STOCK =
+			"UPDATE products SET stock = stock - ?, updated_at = ? WHERE id = ? AND stock >= ?";
+	private static final String INSERT_ORDER_ITEM =
+			"INSERT INTO order_items (order_id, product_id, quantity, price) VALUES (?, ?, ?, ?)";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	/**
+	 * Decrements stock for every product in one batch. Returns the ids whose row did not
+	 * match, i.e. products that no longer have enough stock.
+	 */
+	public List<Long> decrementStock(Map<Long, Integer> quantities) {
+		List<Map.Entry<Long, Integer>> lines = new ArrayList<>(quantities.entrySet());
+		Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+		int[] counts = jdbcTemplate.batchUpdate(DECREMENT_STOCK, new BatchPreparedStatementSetter() {
+			@Override
+			public void setValues(PreparedStatement ps, int i) throws SQLException {
+				Map.Entry<Long, Integer> line = lines.get(i);
+				ps.setInt(1, line.getValue());
+				ps.setTimestamp(2, now);
+				ps.setLong(3, line.getKey());
+				ps.setInt(4, line.getValue());
+			}
+
+			@Override
+			public int getBatchSize() {
+				return lines.size();
+			}
+		});
+		List<Long> insufficient = new ArrayList<>();
+		for (int i = 0; i < counts.length; i++) {
+			if (counts[i] == 0) {
+				insufficient.add(lines.get(i).getKey());
+			}
+		}
+		return insufficient;
+	}
+
+	/**
+	 * Inserts all items of an order in one batch and writes the generated ids back onto them.
+	 */
+	public void insertOrderItems(Long orderId, List<OrderItem> items) {
+		KeyHolder keyHolder = new GeneratedKeyHolder();
+		jdbcTemplate.batchUpdate(
+				connection -> connection.prepareStatement(INSERT_ORDER_ITEM, Statement.RETURN_GENERATED_KEYS),
+				new BatchPreparedStatementSetter() {
+					@Override
+					public void setValues(PreparedStatement ps, int i) throws SQLException {
+						OrderItem item = items.get(i);
+						ps.setLong(1, orderId);
+						ps.setLong(2, item.getProduct().getId());
+						ps.setInt(3, item.getQuantity());
+						ps.setDouble(4, item.getPrice());
+					}
+
+					@Override
+					public int getBatchSize() {
+						return items.size();
+					}
+				},
+				keyHolder);
+		List<Map<String, Object>> keys = keyHolder.getKeyList();
+		for (int i = 0; i < keys.size() && i < items.size(); i++) {
+			Object key = keys.get(i).values().iterator().next();
+			items.get(i).setId(((Number) key).longValue());
+		}
+	}
+}
@@ -3,9 +3,13 @@ package com.yfdecor.repository;
 
 import com.yfdecor.model.Order;
 import com.yfdecor.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,4 +18,22 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 	List<Order> findByUser(User user);
 	Optional<Order> findByOrderNumber(String orderNumber);
 	Optional<Order> findByIdAndUser(Long id, User user);
+	boolean existsByReservationId(String reservationId);
+
+	@Query("select o.id from Order o where o.user = :user order by o.id desc")
+	List<Long> findIdsByUser(@Param("user") User user, Pageable pageable);
+
+	@Query("select o.id from Order o where o.user = :user and o.id < :beforeId order by o.id desc")
+	List<Long> findIdsBeforeId(@Param("user") User user, @Param("beforeId") Long beforeId, Pageable pageable);
+
+	/**
+	 * Loads orders with their items and address in one statement. Paged callers select ids
+	 * first, because paging a collection fetch join would be applied in memory.
+	 */
+	@Query("select distinct o from Order o left join fetch o.address left join fetch o.items "
+			+ "where o.id in :ids order by o.id desc")
+	List<Order> findWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+	@Query("select o from Order o left join fetch o.address left join fetch o.items where o.id = :id and o.user = :user")
+	Optional<Order> findWithItemsByIdAndUser(@Param("id") Long id, @Param("user") User user);
 }
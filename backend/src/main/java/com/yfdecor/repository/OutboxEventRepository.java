@@ -0,0 +1,51 @@
+package com.yfdecor.repository;
+
+import com.yfdecor.model.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+	/**
+	 * Due rows, locked with SKIP LOCKED (timeout -2) so concurrent pollers on other
+	 * instances claim disjoint batches instead of queueing behind each other.
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+	@Query("select e from OutboxEvent e where e.status in :statuses and e.nextAttemptAt <= :now order by e.id")
+	List<OutboxEvent> findDueForUpdate(@Param("statuses") Collection<String> statuses,
+			@Param("now") LocalDateTime now, Pageable pageable);
+
+	@Transactional
+	@Modifying
+	@Query("update OutboxEvent e set e.status = '" + OutboxEvent.DONE + "', e.processedAt = :processedAt, "
+			+ "e.lastError = null where e.id = :id")
+	int markDone(@Param("id") Long id, @Param("processedAt") LocalDateTime processedAt);
+
+	@Transactional
+	@Modifying
+	@Query("update OutboxEvent e set e.status = :status, e.nextAttemptAt = :nextAttemptAt, e.lastError = :error where e.id = :id")
+	int reschedule(@Param("id") Long id, @Param("status") String status,
+			@Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("error") String error);
+
+	@Transactional
+	@Modifying
+	@Query("delete from OutboxEvent e where e.status = :status and e.processedAt < :before")
+	int deleteProcessedBefore(@Param("status") String status, @Param("before") LocalDateTime before);
+
+	long countByStatus(String status);
+}
@@ -0,0 +1,83 @@
+package com.yfdecor.repository;
+
+import com.yfdecor.ingest.ProductUpsert;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Batched writes for catalog imports. Products are keyed on their unique slug: a new slug
+ * inserts a row, a known one overwrites it in place so its id (and every cart, order and
+ * wishlist row pointing at it) is kept. Stock on a known slug is live (checkout decrements
+ * it), so it is only overwritten when the caller asks for it. With
+ * {@code rewriteBatchedStatements=true} on the MySQL url, each batch goes over the wire as a
+ * single multi-row statement.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductImportJdbcRepository {
+
+	private static final String INSERT =
+			"INSERT INTO products (name, slug, description, image_url, category_id, stock, price, discount, updated_at) "
+					+ "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) "
+					+ "ON DUPLICATE KEY UPDATE name = VALUES(name), description = VALUES(description), "
+					+ "image_url = VALUES(image_url), category_id = VALUES(category_id), ";
+	private static final String UPSERT = INSERT
+			+ "price = VALUES(price), discount = VALUES(discount), updated_at = VALUES(updated_at)";
+	private static final String UPSERT_WITH_STOCK = INSERT
+			+ "stock = VALUES(stock), price = VALUES(price), discount = VALUES(discount), updated_at = VALUES(updated_at)";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	/**
+	 * Which of the given slugs already exist, so an import can tell inserts from updates.
+	 */
+	public Set<String> findExistingSlugs(Collection<String> slugs) {
+		if (slugs.isEmpty()) {
+			return new HashSet<>();
+		}
+		String placeholders = String.join(", ", Collections.nCopies(slugs.size(), "?"));
+		return new HashSet<>(jdbcTemplate.queryForList(
+				"SELECT slug FROM products WHERE slug IN (" + placeholders + ")", String.class, slugs.toArray()));
+	}
+
+	public void upsert(List<ProductUpsert> rows, boolean updateStock) {
+		Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+		jdbcTemplate.batchUpdate(updateStock ? UPSERT_WITH_STOCK : UPSERT, new BatchPreparedStatementSetter() {
+			@Override
+			public void setValues(PreparedStatement ps, int i) throws SQLException {
+				ProductUpsert row = rows.get(i);
+				ps.setString(1, row.getName());
+				ps.setString(2, row.getSlug());
+				ps.setString(3, row.getDescription());
+				ps.setString(4, row.getImageUrl());
+				ps.setLong(5, row.getCategoryId());
+				ps.setInt(6, row.getStock());
+				ps.setDouble(7, row.getPrice());
+				if (row.getDiscount() == null) {
+					ps.setNull(8, Types.DOUBLE);
+				} else {
+					ps.setDouble(8, row.getDiscount());
+				}
+				ps.setTimestamp(9, now);
+			}
+
+			@Override
+			public int getBatchSize() {
+				return rows.size();
+			}
+		});
+	}
+}
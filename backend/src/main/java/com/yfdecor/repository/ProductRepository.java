@@ -1,19 +1,68 @@
 
 package com.yfdecor.repository;
 
+import com.yfdecor.cache.ProductStock;
 import com.yfdecor.model.Category;
 import com.yfdecor.model.Product;
+import com.yfdecor.search.ProductFacets;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
+	@EntityGraph(attributePaths = "category")
+	List<Product> findAll();
+
+	@EntityGraph(attributePaths = "category")
+	List<Product> findAllById(Iterable<Long> ids);
+
+	@EntityGraph(attributePaths = "category")
+	Page<Product> findAll(Pageable pageable);
+
+	@EntityGraph(attributePaths = "category")
 	Page<Product> findByCategory(Category category, Pageable pageable);
+
+	@EntityGraph(attributePaths = "category")
 	Page<Product> findByNameContainingIgnoreCase(String search, Pageable pageable);
+
+	@EntityGraph(attributePaths = "category")
 	Optional<Product> findById(Long id);
+
+	@EntityGraph(attributePaths = "category")
 	Optional<Product> findBySlug(String slug);
+
+	@EntityGraph(attributePaths = "category")
+	@Query("select p from Product p where (:categoryId is null or p.category.id = :categoryId) "
+			+ "and p.id > :afterId order by p.id")
+	List<Product> findPageAfterId(@Param("categoryId") Long categoryId, @Param("afterId") Long afterId,
+			Pageable pageable);
+
+	@EntityGraph(attributePaths = "category")
+	@Query("select p from Product p where (:categoryId is null or p.category.id = :categoryId) "
+			+ "and (p.price > :afterPrice or (p.price = :afterPrice and p.id > :afterId)) order by p.price, p.id")
+	List<Product> findPageAfterPrice(@Param("categoryId") Long categoryId, @Param("afterPrice") Double afterPrice,
+			@Param("afterId") Long afterId, Pageable pageable);
+
+	@Query("select new com.yfdecor.cache.ProductStock(p.id, p.category.id, p.stock) from Product p")
+	List<ProductStock> findAllStock();
+
+	@Query("select new com.yfdecor.cache.ProductStock(p.id, p.category.id, p.stock) from Product p where p.id in :ids")
+	List<ProductStock> findStockByIdIn(@Param("ids") Collection<Long> ids);
+
+	@Query("select new com.yfdecor.search.ProductFacets(p.id, p.price, p.discount, p.stock, c.id, c.slug, c.name) "
+			+ "from Product p join p.category c")
+	List<ProductFacets> findAllFacets();
+
+	@Query("select new com.yfdecor.search.ProductFacets(p.id, p.price, p.discount, p.stock, c.id, c.slug, c.name) "
+			+ "from Product p join p.category c where p.id in :ids")
+	List<ProductFacets> findFacetsByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,48 @@
+package com.yfdecor.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Optional;
+
+/**
+ * Idempotent wishlist writes. Each is one statement against the (user_id, product_id) unique
+ * key, so adding twice or removing something absent is a no-op rather than a read-then-write.
+ */
+@Repository
+@RequiredArgsConstructor
+public class WishlistJdbcRepository {
+
+	private static final String INSERT_IGNORE =
+			"INSERT IGNORE INTO wishlist (user_id, product_id) VALUES (?, ?)";
+	private static final String DELETE =
+			"DELETE FROM wishlist WHERE user_id = ? AND product_id = ?";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	/**
+	 * Returns the new row id, or empty when the product was already wishlisted.
+	 */
+	public Optional<Long> insertIgnore(Long userId, Long productId) {
+		KeyHolder keyHolder = new GeneratedKeyHolder();
+		int inserted = jdbcTemplate.update(con -> {
+			PreparedStatement ps = con.prepareStatement(INSERT_IGNORE, Statement.RETURN_GENERATED_KEYS);
+			ps.setLong(1, userId);
+			ps.setLong(2, productId);
+			return ps;
+		}, keyHolder);
+		if (inserted == 0 || keyHolder.getKey() == null) {
+			return Optional.empty();
+		}
+		return Optional.of(keyHolder.getKey().longValue());
+	}
+
+	public boolean delete(Long userId, Long productId) {
+		return jdbcTemplate.update(DELETE, userId, productId) > 0;
+	}
+}
@@ -1,18 +1,20 @@
-
 package com.yfdecor.repository;
 
-import com.yfdecor.model.Product;
-import com.yfdecor.model.User;
 import com.yfdecor.model.WishlistItem;
+import com.yfdecor.wishlist.WishlistEntry;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
-import java.util.Optional;
 
 @Repository
 public interface WishlistRepository extends JpaRepository<WishlistItem, Long> {
-	List<WishlistItem> findByUser(User user);
-	Optional<WishlistItem> findByUserAndProduct(User user, Product product);
-	void deleteByUserAndProduct(User user, Product product);
+	@Query("select new com.yfdecor.wishlist.WishlistEntry(w.id, w.product.id) from WishlistItem w "
+			+ "where w.user.id = :userId order by w.id")
+	List<WishlistEntry> findEntriesByUserId(@Param("userId") Long userId);
+
+	@Query("select w.product.id from WishlistItem w where w.user.id = :userId")
+	List<Long> findProductIdsByUserId(@Param("userId") Long userId);
 }
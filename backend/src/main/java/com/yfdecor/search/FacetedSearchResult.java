@@ -0,0 +1,20 @@
+package com.yfdecor.search;
+
+import com.yfdecor.dto.response.FacetCountResponse;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of product ids matching a {@link ProductFacetQuery}, in sort order, with the total
+ * match count and the facet counts for each dimension.
+ */
+@Getter
+@AllArgsConstructor
+public class FacetedSearchResult {
+	private final List<Long> productIds;
+	private final int total;
+	private final Map<String, List<FacetCountResponse>> facets;
+}
@@ -0,0 +1,499 @@
+package com.yfdecor.search;
+
+import com.yfdecor.dto.response.FacetCountResponse;
+import com.yfdecor.event.CatalogChangedEvent;
+import com.yfdecor.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Bitmap indexes over the whole catalog for combined filtering and facet counts. Every product
+ * gets a dense ordinal; categories, availability and the price and discount buckets are
+ * {@link BitSet}s over those ordinals, so a query is a handful of ANDs and each facet count is
+ * the cardinality of one intersection instead of a GROUP BY.
+ * <p>
+ * Counts are disjunctive: each dimension is counted with every filter applied except its own,
+ * so selecting one category still shows how many products the other categories would add.
+ * <p>
+ * Like {@link com.yfdecor.cache.CategoryCatalogCache}, readers take an immutable snapshot
+ * without locking; a product change patches the guarded state and publishes a new snapshot.
+ * Sort orders and price buckets are only recomputed when a price, discount or the product
+ * set changed, so the stock updates from checkout stay cheap.
+ */
+@Slf4j
+@Component
+public class ProductFacetIndex {
+
+	public static final String FACET_CATEGORY = "category";
+	public static final String FACET_PRICE = "price";
+	public static final String FACET_DISCOUNT = "discount";
+	public static final String FACET_AVAILABILITY = "availability";
+
+	private static final String IN_STOCK = "in_stock";
+	private static final String OUT_OF_STOCK = "out_of_stock";
+
+	private final ProductRepository productRepository;
+	private final ProductSearchIndex searchIndex;
+	private final double[] priceBounds;
+	private final int[] discountSteps;
+
+	/* Guarded by this; snapshots are copied from it. */
+	private long[] ids = new long[0];
+	private double[] prices = new double[0];
+	private int[] discounts = new int[0];
+	private long[] categoryOf = new long[0];
+	private int size;
+	private final Map<Long, Integer> ordinals = new HashMap<>();
+	private final BitSet live = new BitSet();
+	private final BitSet inStock = new BitSet();
+	private final Map<Long, CategoryBits> categories = new LinkedHashMap<>();
+	private boolean ordinalsChanged;
+	private boolean pricesChanged;
+	private volatile Snapshot snapshot;
+
+	public ProductFacetIndex(ProductRepository productRepository, ProductSearchIndex searchIndex,
+			@Value("${catalog.facets.price-buckets:500,1000,2500,5000}") double[] priceBounds,
+			@Value("${catalog.facets.discount-buckets:10,25,50}") int[] discountSteps) {
+		this.productRepository = productRepository;
+		this.searchIndex = searchIndex;
+		this.priceBounds = priceBounds.clone();
+		this.discountSteps = discountSteps.clone();
+		Arrays.sort(this.priceBounds);
+		Arrays.sort(this.discountSteps);
+	}
+
+	public FacetedSearchResult search(ProductFacetQuery query) {
+		Snapshot current = snapshot();
+
+		BitSet base = (BitSet) current.live.clone();
+		List<Long> ranked = null;
+		if (query.hasText()) {
+			ranked = searchIndex.search(query.getText());
+			BitSet matches = new BitSet(current.ids.length);
+			for (Long id : ranked) {
+				Integer ordinal = current.ordinals.get(id);
+				if (ordinal != null) {
+					matches.set(ordinal);
+				}
+			}
+			base.and(matches);
+		}
+
+		BitSet categoryFilter = null;
+		if (!query.getCategories().isEmpty()) {
+			categoryFilter = new BitSet();
+			for (String slug : query.getCategories()) {
+				CategoryFacet category = current.bySlug.get(slug);
+				if (category != null) {
+					categoryFilter.or(category.members);
+				}
+			}
+		}
+		BitSet priceFilter = query.getMinPrice() == null && query.getMaxPrice() == null
+				? null
+				: scanPrices(current, base, query.getMinPrice(), query.getMaxPrice());
+		BitSet discountFilter = query.getMinDiscount() == null
+				? null
+				: scanDiscounts(current, base, query.getMinDiscount());
+		BitSet stockFilter = null;
+		if (query.getInStock() != null) {
+			stockFilter = (BitSet) current.inStock.clone();
+			if (!query.getInStock()) {
+				stockFilter.flip(0, current.ids.length);
+			}
+		}
+
+		BitSet result = intersect(base, categoryFilter, priceFilter, discountFilter, stockFilter);
+
+		if (!query.isFacets()) {
+			return new FacetedSearchResult(page(current, query, result, ranked), result.cardinality(), Map.of());
+		}
+		Map<String, List<FacetCountResponse>> facets = new LinkedHashMap<>();
+		facets.put(FACET_CATEGORY, categoryCounts(current, query,
+				intersect(base, priceFilter, discountFilter, stockFilter)));
+		facets.put(FACET_PRICE, priceCounts(current, query,
+				intersect(base, categoryFilter, discountFilter, stockFilter)));
+		facets.put(FACET_DISCOUNT, discountCounts(current, query,
+				intersect(base, categoryFilter, priceFilter, stockFilter)));
+		facets.put(FACET_AVAILABILITY, availabilityCounts(current, query,
+				intersect(base, categoryFilter, priceFilter, discountFilter)));
+
+		return new FacetedSearchResult(page(current, query, result, ranked), result.cardinality(), facets);
+	}
+
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	@TransactionalEventListener(fallbackExecution = true)
+	public synchronized void onCatalogChanged(CatalogChangedEvent event) {
+		if (snapshot == null) {
+			return;
+		}
+		if (event.isFullRefresh()) {
+			reload();
+			return;
+		}
+		Map<Long, ProductFacets> changed = new HashMap<>();
+		for (ProductFacets product : productRepository.findFacetsByIdIn(event.getProductIds())) {
+			changed.put(product.getProductId(), product);
+		}
+		for (Long productId : event.getProductIds()) {
+			ProductFacets product = changed.get(productId);
+			if (product != null) {
+				apply(product);
+			} else {
+				remove(productId);
+			}
+		}
+		publish();
+	}
+
+	private Snapshot snapshot() {
+		Snapshot current = snapshot;
+		if (current != null) {
+			return current;
+		}
+		synchronized (this) {
+			if (snapshot == null) {
+				reload();
+			}
+			return snapshot;
+		}
+	}
+
+	private void reload() {
+		ids = new long[0];
+		prices = new double[0];
+		discounts = new int[0];
+		categoryOf = new long[0];
+		size = 0;
+		ordinals.clear();
+		live.clear();
+		inStock.clear();
+		categories.clear();
+		List<ProductFacets> products = new ArrayList<>(productRepository.findAllFacets());
+		// Ordinals in id order keep the id sort in publish() close to a linear pass
+		products.sort(Comparator.comparing(ProductFacets::getProductId));
+		products.forEach(this::apply);
+		ordinalsChanged = true;
+		pricesChanged = true;
+		publish();
+		log.info("Product facet index built with {} products in {} categories", size, categories.size());
+	}
+
+	private void apply(ProductFacets product) {
+		Long productId = product.getProductId();
+		Integer ordinal = ordinals.get(productId);
+		if (ordinal == null) {
+			ordinal = size++;
+			if (ordinal == ids.length) {
+				int capacity = Math.max(16, ids.length * 2);
+				ids = Arrays.copyOf(ids, capacity);
+				prices = Arrays.copyOf(prices, capacity);
+				discounts = Arrays.copyOf(discounts, capacity);
+				categoryOf = Arrays.copyOf(categoryOf, capacity);
+			}
+			ids[ordinal] = productId;
+			ordinals.put(productId, ordinal);
+			ordinalsChanged = true;
+		} else if (live.get(ordinal)) {
+			categories.get(categoryOf[ordinal]).members.clear(ordinal);
+		}
+
+		double price = product.getPrice();
+		double discount = product.getDiscount() == null ? 0 : product.getDiscount();
+		double net = price - discount;
+		int percent = price > 0 && discount > 0 ? (int) Math.round(discount * 100 / price) : 0;
+		if (!live.get(ordinal) || prices[ordinal] != net || discounts[ordinal] != percent) {
+			pricesChanged = true;
+		}
+		prices[ordinal] = net;
+		discounts[ordinal] = percent;
+		live.set(ordinal);
+		inStock.set(ordinal, product.getStock() != null && product.getStock() > 0);
+
+		CategoryBits category = categories.computeIfAbsent(product.getCategoryId(), id -> new CategoryBits());
+		category.slug = product.getCategorySlug();
+		category.name = product.getCategoryName();
+		category.members.set(ordinal);
+		categoryOf[ordinal] = product.getCategoryId();
+	}
+
+	private void remove(Long productId) {
+		Integer ordinal = ordinals.get(productId);
+		if (ordinal == null || !live.get(ordinal)) {
+			return;
+		}
+		live.clear(ordinal);
+		inStock.clear(ordinal);
+		categories.get(categoryOf[ordinal]).members.clear(ordinal);
+		pricesChanged = true;
+	}
+
+	private void publish() {
+		Snapshot previous = snapshot;
+		Map<Long, Integer> snapshotOrdinals = ordinalsChanged || previous == null
+				? Map.copyOf(ordinals)
+				: previous.ordinals;
+		double[] snapshotPrices = Arrays.copyOf(prices, size);
+		int[] snapshotDiscounts = Arrays.copyOf(discounts, size);
+
+		List<CategoryFacet> categoryFacets = new ArrayList<>(categories.size());
+		Map<String, CategoryFacet> bySlug = new HashMap<>();
+		for (CategoryBits bits : categories.values()) {
+			CategoryFacet facet = new CategoryFacet(bits.slug, bits.name, (BitSet) bits.members.clone());
+			categoryFacets.add(facet);
+			bySlug.put(facet.slug, facet);
+		}
+		categoryFacets.sort(Comparator.comparing(facet -> facet.name));
+
+		BitSet[] priceBuckets;
+		BitSet[] discountBuckets;
+		int[] byId;
+		int[] byPrice;
+		int[] byDiscount;
+		if (pricesChanged || previous == null) {
+			priceBuckets = new BitSet[priceBounds.length + 1];
+			discountBuckets = new BitSet[discountSteps.length];
+			Arrays.setAll(priceBuckets, i -> new BitSet(size));
+			Arrays.setAll(discountBuckets, i -> new BitSet(size));
+			for (int ordinal = live.nextSetBit(0); ordinal >= 0; ordinal = live.nextSetBit(ordinal + 1)) {
+				priceBuckets[priceBucket(snapshotPrices[ordinal])].set(ordinal);
+				for (int step = 0; step < discountSteps.length && snapshotDiscounts[ordinal] >= discountSteps[step]; step++) {
+					discountBuckets[step].set(ordinal);
+				}
+			}
+			long[] snapshotIds = ids;
+			byId = sortedOrdinals(Comparator.comparingLong(ordinal -> snapshotIds[ordinal]));
+			byPrice = sortedOrdinals(Comparator.<Integer>comparingDouble(ordinal -> snapshotPrices[ordinal])
+					.thenComparingLong(ordinal -> snapshotIds[ordinal]));
+			byDiscount = sortedOrdinals(Comparator.<Integer>comparingInt(ordinal -> -snapshotDiscounts[ordinal])
+					.thenComparingLong(ordinal -> snapshotIds[ordinal]));
+		} else {
+			priceBuckets = previous.priceBuckets;
+			discountBuckets = previous.discountBuckets;
+			byId = previous.byId;
+			byPrice = previous.byPrice;
+			byDiscount = previous.byDiscount;
+		}
+
+		snapshot = new Snapshot(snapshotOrdinals, Arrays.copyOf(ids, size), snapshotPrices, snapshotDiscounts,
+				(BitSet) live.clone(), (BitSet) inStock.clone(), List.copyOf(categoryFacets), Map.copyOf(bySlug),
+				priceBuckets, discountBuckets, byId, byPrice, byDiscount);
+		ordinalsChanged = false;
+		pricesChanged = false;
+	}
+
+	private int[] sortedOrdinals(Comparator<Integer> order) {
+		return IntStream.range(0, size).boxed().sorted(order).mapToInt(Integer::intValue).toArray();
+	}
+
+	private int priceBucket(double price) {
+		int bucket = 0;
+		while (bucket < priceBounds.length && price >= priceBounds[bucket]) {
+			bucket++;
+		}
+		return bucket;
+	}
+
+	private static BitSet scanPrices(Snapshot current, BitSet candidates, Double min, Double max) {
+		BitSet matches = new BitSet(current.ids.length);
+		for (int ordinal = candidates.nextSetBit(0); ordinal >= 0; ordinal = candidates.nextSetBit(ordinal + 1)) {
+			double price = current.prices[ordinal];
+			if ((min == null || price >= min) && (max == null || price < max)) {
+				matches.set(ordinal);
+			}
+		}
+		return matches;
+	}
+
+	private static BitSet scanDiscounts(Snapshot current, BitSet candidates, int minDiscount) {
+		BitSet matches = new BitSet(current.ids.length);
+		for (int ordinal = candidates.nextSetBit(0); ordinal >= 0; ordinal = candidates.nextSetBit(ordinal + 1)) {
+			if (current.discounts[ordinal] >= minDiscount) {
+				matches.set(ordinal);
+			}
+		}
+		return matches;
+	}
+
+	private static BitSet intersect(BitSet base, BitSet... filters) {
+		BitSet result = (BitSet) base.clone();
+		for (BitSet filter : filters) {
+			if (filter != null) {
+				result.and(filter);
+			}
+		}
+		return result;
+	}
+
+	private static int countIn(BitSet candidates, BitSet members) {
+		BitSet both = (BitSet) candidates.clone();
+		both.and(members);
+		return both.cardinality();
+	}
+
+	private static List<FacetCountResponse> categoryCounts(Snapshot current, ProductFacetQuery query, BitSet candidates) {
+		List<FacetCountResponse> counts = new ArrayList<>(current.categories.size());
+		for (CategoryFacet category : current.categories) {
+			counts.add(FacetCountResponse.builder()
+					.value(category.slug)
+					.label(category.name)
+					.count(countIn(candidates, category.members))
+					.selected(query.getCategories().contains(category.slug))
+					.build());
+		}
+		return counts;
+	}
+
+	private List<FacetCountResponse> priceCounts(Snapshot current, ProductFacetQuery query, BitSet candidates) {
+		List<FacetCountResponse> counts = new ArrayList<>(current.priceBuckets.length);
+		for (int bucket = 0; bucket < current.priceBuckets.length; bucket++) {
+			Double low = bucket == 0 ? null : priceBounds[bucket - 1];
+			Double high = bucket == priceBounds.length ? null : priceBounds[bucket];
+			counts.add(FacetCountResponse.builder()
+					.value(format(low == null ? 0 : low) + "-" + (high == null ? "" : format(high)))
+					.count(countIn(candidates, current.priceBuckets[bucket]))
+					.selected(sameBound(low, query.getMinPrice()) && sameBound(high, query.getMaxPrice()))
+					.build());
+		}
+		return counts;
+	}
+
+	private List<FacetCountResponse> discountCounts(Snapshot current, ProductFacetQuery query, BitSet candidates) {
+		List<FacetCountResponse> counts = new ArrayList<>(discountSteps.length);
+		for (int step = 0; step < discountSteps.length; step++) {
+			counts.add(FacetCountResponse.builder()
+					.value(Integer.toString(discountSteps[step]))
+					.count(countIn(candidates, current.discountBuckets[step]))
+					.selected(query.getMinDiscount() != null && query.getMinDiscount() == discountSteps[step])
+					.build());
+		}
+		return counts;
+	}
+
+	private static List<FacetCountResponse> availabilityCounts(Snapshot current, ProductFacetQuery query,
+			BitSet candidates) {
+		int available = countIn(candidates, current.inStock);
+		return List.of(
+				FacetCountResponse.builder()
+						.value(IN_STOCK)
+						.count(available)
+						.selected(Boolean.TRUE.equals(query.getInStock()))
+						.build(),
+				FacetCountResponse.builder()
+						.value(OUT_OF_STOCK)
+						.count(candidates.cardinality() - available)
+						.selected(Boolean.FALSE.equals(query.getInStock()))
+						.build());
+	}
+
+	private static List<Long> page(Snapshot current, ProductFacetQuery query, BitSet result, List<Long> ranked) {
+		// Long so a huge page number cannot wrap around to a small or negative offset
+		long skip = (long) (query.getPage() - 1) * query.getLimit();
+		List<Long> page = new ArrayList<>((int) Math.min(query.getLimit(), Math.max(result.cardinality() - skip, 0)));
+		switch (query.effectiveSort()) {
+			case ProductFacetQuery.SORT_RELEVANCE -> {
+				for (Long id : ranked) {
+					Integer ordinal = current.ordinals.get(id);
+					if (ordinal != null && result.get(ordinal) && skip-- <= 0) {
+						page.add(id);
+						if (page.size() == query.getLimit()) {
+							break;
+						}
+					}
+				}
+				return page;
+			}
+			case ProductFacetQuery.SORT_PRICE -> collect(current, current.byPrice, false, result, skip, page, query);
+			case ProductFacetQuery.SORT_PRICE_DESC -> collect(current, current.byPrice, true, result, skip, page, query);
+			case ProductFacetQuery.SORT_DISCOUNT -> collect(current, current.byDiscount, false, result, skip, page, query);
+			case ProductFacetQuery.SORT_NEWEST -> collect(current, current.byId, true, result, skip, page, query);
+			default -> collect(current, current.byId, false, result, skip, page, query);
+		}
+		return page;
+	}
+
+	private static void collect(Snapshot current, int[] order, boolean descending, BitSet result, long skip,
+			List<Long> page, ProductFacetQuery query) {
+		for (int i = 0; i < order.length && page.size() < query.getLimit(); i++) {
+			int ordinal = order[descending ? order.length - 1 - i : i];
+			if (result.get(ordinal) && skip-- <= 0) {
+				page.add(current.ids[ordinal]);
+			}
+		}
+	}
+
+	private static boolean sameBound(Double bound, Double requested) {
+		return bound == null ? requested == null || requested == 0 : bound.equals(requested);
+	}
+
+	private static String format(double value) {
+		return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+	}
+
+	private static final class CategoryBits {
+		private String slug;
+		private String name;
+		private final BitSet members = new BitSet();
+	}
+
+	private static final class CategoryFacet {
+		private final String slug;
+		private final String name;
+		private final BitSet members;
+
+		private CategoryFacet(String slug, String name, BitSet members) {
+			this.slug = slug;
+			this.name = name;
+			this.members = members;
+		}
+	}
+
+	private static final class Snapshot {
+		private final Map<Long, Integer> ordinals;
+		private final long[] ids;
+		private final double[] prices;
+		private final int[] discounts;
+		private final BitSet live;
+		private final BitSet inStock;
+		private final List<CategoryFacet> categories;
+		private final Map<String, CategoryFacet> bySlug;
+		private final BitSet[] priceBuckets;
+		private final BitSet[] discountBuckets;
+		private final int[] byId;
+		private final int[] byPrice;
+		private final int[] byDiscount;
+
+		private Snapshot(Map<Long, Integer> ordinals, long[] ids, double[] prices, int[] discounts, BitSet live,
+				BitSet inStock, List<CategoryFacet> categories, Map<String, CategoryFacet> bySlug,
+				BitSet[] priceBuckets, BitSet[] discountBuckets, int[] byId, int[] byPrice, int[] byDiscount) {
+			this.ordinals = ordinals;
+			this.ids = ids;
+			this.prices = prices;
+			this.discounts = discounts;
+			this.live = live;
+			this.inStock = inStock;
+			this.categories = categories;
+			this.bySlug = bySlug;
+			this.priceBuckets = priceBuckets;
+			this.discountBuckets = discountBuckets;
+			this.byId = byId;
+			this.byPrice = byPrice;
+			this.byDiscount = byDiscount;
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package com.yfdecor.search;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Set;
+
+/**
+ * Filters, sort and page for {@link ProductFacetIndex}. Prices are the price customers pay
+ * (list price less the per-unit discount); {@code minPrice} is inclusive and {@code maxPrice}
+ * exclusive, so adjacent price buckets never overlap. {@code minDiscount} is a percentage.
+ */
+@Getter
+@Builder(toBuilder = true)
+public class ProductFacetQuery {
+
+	public static final String SORT_RELEVANCE = "relevance";
+	public static final String SORT_ID = "id";
+	public static final String SORT_NEWEST = "newest";
+	public static final String SORT_PRICE = "price";
+	public static final String SORT_PRICE_DESC = "price_desc";
+	public static final String SORT_DISCOUNT = "discount";
+
+	private static final Set<String> SORTS = Set.of(SORT_RELEVANCE, SORT_ID, SORT_NEWEST, SORT_PRICE,
+			SORT_PRICE_DESC, SORT_DISCOUNT);
+
+	/** Category slugs; a product in any of them matches. Empty means every category. */
+	@Builder.Default
+	private final Set<String> categories = Set.of();
+	private final String text;
+	private final Double minPrice;
+	private final Double maxPrice;
+	private final Integer minDiscount;
+	private final Boolean inStock;
+	private final String sort;
+	private final int page;
+	private final int limit;
+	/** Whether to compute facet counts; plain listings skip them. */
+	private final boolean facets;
+
+	public static boolean isSupportedSort(String sort) {
+		return sort == null || SORTS.contains(sort);
+	}
+
+	public boolean hasText() {
+		return text != null && !text.isBlank();
+	}
+
+	/**
+	 * Sort actually applied: the requested one, else relevance for text queries and id otherwise.
+	 */
+	public String effectiveSort() {
+		if (sort != null && (hasText() || !SORT_RELEVANCE.equals(sort))) {
+			return sort;
+		}
+		return hasText() ? SORT_RELEVANCE : SORT_ID;
+	}
+
+	/**
+	 * True when at most one category or a search term is given with no other filter or sort,
+	 * which is what the cached listing pages already answer.
+	 */
+	public boolean isPlainListing() {
+		return categories.size() <= 1
+				&& !(categories.size() == 1 && hasText())
+				&& minPrice == null && maxPrice == null && minDiscount == null && inStock == null
+				&& (sort == null || sort.equals(hasText() ? SORT_RELEVANCE : SORT_ID));
+	}
+}
@@ -0,0 +1,21 @@
+package com.yfdecor.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The slice of a product row that {@link ProductFacetIndex} filters and counts on.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFacets {
+	private Long productId;
+	private Double price;
+	private Double discount;
+	private Integer stock;
+	private Long categoryId;
+	private String categorySlug;
+	private String categoryName;
+}
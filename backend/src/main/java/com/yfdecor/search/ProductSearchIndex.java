@@ -0,0 +1,226 @@
+
+package com.yfdecor.search;
+
+import com.yfdecor.event.CatalogChangedEvent;
+import com.yfdecor.model.Product;
+import com.yfdecor.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted index over product name, description and category name.
+ * Built from the products table once the application is ready and kept current from
+ * {@link CatalogChangedEvent}s. Query terms match exactly, as a prefix, or - when neither
+ * hits - within a small edit distance of an indexed term sharing the same first letter.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductSearchIndex {
+
+	private static final float NAME_WEIGHT = 3f;
+	private static final float CATEGORY_WEIGHT = 2f;
+	private static final float DESCRIPTION_WEIGHT = 1f;
+
+	private static final float EXACT_MATCH = 1f;
+	private static final float PREFIX_MATCH = 0.7f;
+	private static final float FUZZY_MATCH = 0.5f;
+
+	private final ProductRepository productRepository;
+
+	private final NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+	private final Map<Long, Set<String>> documentTerms = new HashMap<>();
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private volatile boolean ready;
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void build() {
+		List<Product> products = productRepository.findAll();
+		lock.writeLock().lock();
+		try {
+			postings.clear();
+			documentTerms.clear();
+			products.forEach(this::addDocument);
+		} finally {
+			lock.writeLock().unlock();
+		}
+		ready = true;
+		log.info("Product search index built with {} products and {} terms", products.size(), postings.size());
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onCatalogChanged(CatalogChangedEvent event) {
+		if (event.isFullRefresh()) {
+			build();
+			return;
+		}
+		List<Product> products = productRepository.findAllById(event.getProductIds());
+		lock.writeLock().lock();
+		try {
+			event.getProductIds().forEach(this::removeDocument);
+			products.forEach(this::addDocument);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public boolean isReady() {
+		return ready;
+	}
+
+	/**
+	 * Returns ids of products matching every query term, best match first.
+	 */
+	public List<Long> search(String query) {
+		List<String> queryTerms = tokenize(query);
+		if (queryTerms.isEmpty()) {
+			return List.of();
+		}
+		lock.readLock().lock();
+		try {
+			Map<Long, Float> scores = null;
+			for (String term : queryTerms) {
+				Map<Long, Float> termScores = scoreTerm(term);
+				if (scores == null) {
+					scores = termScores;
+				} else {
+					scores.keySet().retainAll(termScores.keySet());
+					scores.replaceAll((id, score) -> score + termScores.get(id));
+				}
+				if (scores.isEmpty()) {
+					return List.of();
+				}
+			}
+			List<Map.Entry<Long, Float>> ranked = new ArrayList<>(scores.entrySet());
+			ranked.sort(Map.Entry.<Long, Float>comparingByValue().reversed()
+					.thenComparing(Map.Entry.comparingByKey()));
+			List<Long> ids = new ArrayList<>(ranked.size());
+			for (Map.Entry<Long, Float> entry : ranked) {
+				ids.add(entry.getKey());
+			}
+			return ids;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private Map<Long, Float> scoreTerm(String term) {
+		Map<Long, Float> scores = new HashMap<>();
+		Map<Long, Float> exact = postings.get(term);
+		if (exact != null) {
+			accumulate(scores, exact, EXACT_MATCH);
+		}
+		if (term.length() >= 2) {
+			for (Map.Entry<String, Map<Long, Float>> entry : postings.subMap(term, false, term + Character.MAX_VALUE, false).entrySet()) {
+				accumulate(scores, entry.getValue(), PREFIX_MATCH);
+			}
+		}
+		if (scores.isEmpty() && term.length() >= 4) {
+			int maxDistance = term.length() >= 8 ? 2 : 1;
+			String first = term.substring(0, 1);
+			for (Map.Entry<String, Map<Long, Float>> entry : postings.subMap(first, true, first + Character.MAX_VALUE, false).entrySet()) {
+				String candidate = entry.getKey();
+				if (Math.abs(candidate.length() - term.length()) <= maxDistance
+						&& editDistance(term, candidate, maxDistance) <= maxDistance) {
+					accumulate(scores, entry.getValue(), FUZZY_MATCH);
+				}
+			}
+		}
+		return scores;
+	}
+
+	private void accumulate(Map<Long, Float> scores, Map<Long, Float> posting, float matchWeight) {
+		float idf = (float) Math.log(1.0 + (double) documentTerms.size() / posting.size());
+		for (Map.Entry<Long, Float> entry : posting.entrySet()) {
+			float score = entry.getValue() * idf * matchWeight;
+			scores.merge(entry.getKey(), score, Math::max);
+		}
+	}
+
+	private void addDocument(Product product) {
+		Map<String, Float> weights = new HashMap<>();
+		addField(weights, product.getName(), NAME_WEIGHT);
+		addField(weights, product.getDescription(), DESCRIPTION_WEIGHT);
+		if (product.getCategory() != null) {
+			addField(weights, product.getCategory().getName(), CATEGORY_WEIGHT);
+		}
+		for (Map.Entry<String, Float> entry : weights.entrySet()) {
+			postings.computeIfAbsent(entry.getKey(), term -> new HashMap<>()).put(product.getId(), entry.getValue());
+		}
+		documentTerms.put(product.getId(), weights.keySet());
+	}
+
+	private void addField(Map<String, Float> weights, String text, float fieldWeight) {
+		for (String term : tokenize(text)) {
+			weights.merge(term, fieldWeight, Float::sum);
+		}
+	}
+
+	private void removeDocument(Long productId) {
+		Set<String> terms = documentTerms.remove(productId);
+		if (terms == null) {
+			return;
+		}
+		for (String term : terms) {
+			Map<Long, Float> posting = postings.get(term);
+			if (posting != null) {
+				posting.remove(productId);
+				if (posting.isEmpty()) {
+					postings.remove(term);
+				}
+			}
+		}
+	}
+
+	static List<String> tokenize(String text) {
+		if (text == null || text.isBlank()) {
+			return List.of();
+		}
+		String folded = Normalizer.normalize(text, Normalizer.Form.NFD)
+				.replaceAll("\\p{M}", "")
+				.toLowerCase(Locale.ROOT);
+		List<String> tokens = new ArrayList<>();
+		for (String token : folded.split("[^\\p{L}\\p{N}]+")) {
+			if (!token.isEmpty()) {
+				tokens.add(token);
+			}
+		}
+		return tokens;
+	}
+
+	/**
+	 * Levenshtein distance with an early exit once every cell in a row exceeds the bound.
+	 */
+	static int editDistance(String a, String b, int bound) {
+		int[] previous = new int[b.length() + 1];
+		int[] current = new int[b.length() + 1];
+		for (int j = 0; j <= b.length(); j++) {
+			previous[j] = j;
+		}
+		for (int i = 1; i <= a.length(); i++) {
+			current[0] = i;
+			int rowMin = current[0];
+			for (int j = 1; j <= b.length(); j++) {
+				int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+				current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+				rowMin = Math.min(rowMin, current[j]);
+			}
+			if (rowMin > bound) {
+				return bound + 1;
+			}
+			int[] swap = previous;
+			previous = current;
+			current = swap;
+		}
+		return previous[b.length()];
+	}
+}
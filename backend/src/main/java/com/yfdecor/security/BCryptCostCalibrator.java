@@ -0,0 +1,39 @@
+
+package com.yfdecor.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Picks the highest BCrypt cost whose hash time on this machine stays within the target.
+ * Each cost step doubles the work, so the search stops at the first cost that overshoots.
+ */
+@Slf4j
+public final class BCryptCostCalibrator {
+
+	private static final String SAMPLE_PASSWORD = "calibration-sample-password";
+
+	private BCryptCostCalibrator() {
+	}
+
+	public static int calibrate(long targetMillis, int minCost, int maxCost) {
+		// Warm the JIT so the first measured cost is not penalised.
+		new BCryptPasswordEncoder(4).encode(SAMPLE_PASSWORD);
+
+		int chosen = minCost;
+		for (int cost = minCost; cost <= maxCost; cost++) {
+			long start = System.nanoTime();
+			new BCryptPasswordEncoder(cost).encode(SAMPLE_PASSWORD);
+			long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+			if (elapsedMillis > targetMillis && cost > minCost) {
+				break;
+			}
+			chosen = cost;
+			if (elapsedMillis > targetMillis) {
+				break;
+			}
+		}
+		log.info("Calibrated BCrypt cost {} for a {} ms target", chosen, targetMillis);
+		return chosen;
+	}
+}
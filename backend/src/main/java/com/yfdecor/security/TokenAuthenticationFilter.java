@@ -0,0 +1,54 @@
+
+package com.yfdecor.security;
+
+import com.yfdecor.model.User;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Authenticates requests carrying a bearer access token. The principal is rebuilt from the
+ * token claims, so no users-table query is made per request. An invalid or expired token
+ * leaves the request unauthenticated rather than rejecting it here.
+ */
+@RequiredArgsConstructor
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+	private static final String BEARER = "Bearer ";
+
+	private final TokenService tokenService;
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+		if (header == null || !header.startsWith(BEARER)) {
+			chain.doFilter(request, response);
+			return;
+		}
+		Optional<TokenClaims> claims = tokenService.verify(header.substring(BEARER.length()), TokenService.ACCESS);
+		if (claims.isEmpty()) {
+			// Carry on anonymously: public routes still work with a stale token, and the
+			// authentication entry point answers 401 on protected ones
+			SecurityContextHolder.clearContext();
+			chain.doFilter(request, response);
+			return;
+		}
+		User user = tokenService.toPrincipal(claims.get());
+		UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+				user, null, List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole())));
+		SecurityContextHolder.getContext().setAuthentication(authentication);
+		chain.doFilter(request, response);
+	}
+}
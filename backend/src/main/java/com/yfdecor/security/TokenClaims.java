@@ -0,0 +1,21 @@
+
+package com.yfdecor.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TokenClaims {
+	private String jti;
+	private String type;
+	private Long sub;
+	private String email;
+	private String name;
+	private String role;
+	private Long exp;
+}
@@ -0,0 +1,157 @@
+
+package com.yfdecor.security;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yfdecor.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Issues and verifies self-contained HMAC-SHA256 signed tokens of the form
+ * {@code base64url(claims).base64url(signature)}. Access tokens carry everything needed to
+ * rebuild the principal; refresh tokens are rotated on use. Revoked token ids are kept only
+ * until the token would have expired anyway.
+ */
+@Service
+public class TokenService {
+
+	public static final String ACCESS = "access";
+	public static final String REFRESH = "refresh";
+
+	private static final String ALGORITHM = "HmacSHA256";
+	private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+	private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+	private final ObjectMapper objectMapper;
+	private final SecretKeySpec key;
+	private final Duration accessTtl;
+	private final Duration refreshTtl;
+	private final ConcurrentHashMap<String, Long> revoked = new ConcurrentHashMap<>();
+
+	public TokenService(ObjectMapper objectMapper,
+			@Value("${auth.token.secret:}") String secret,
+			@Value("${auth.token.access-ttl:PT15M}") Duration accessTtl,
+			@Value("${auth.token.refresh-ttl:P14D}") Duration refreshTtl) {
+		this.objectMapper = objectMapper;
+		this.accessTtl = accessTtl;
+		this.refreshTtl = refreshTtl;
+		// A per-process random key would log everyone out on restart and split tokens across instances
+		if (secret.isBlank()) {
+			throw new IllegalStateException("auth.token.secret must be set to a base64-encoded key of at least 32 bytes");
+		}
+		byte[] keyBytes = Base64.getDecoder().decode(secret);
+		if (keyBytes.length < 32) {
+			throw new IllegalStateException("auth.token.secret must decode to at least 32 bytes");
+		}
+		this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+	}
+
+	public String issueAccessToken(User user) {
+		return issue(user, ACCESS, accessTtl);
+	}
+
+	public String issueRefreshToken(User user) {
+		return issue(user, REFRESH, refreshTtl);
+	}
+
+	public long getAccessTtlSeconds() {
+		return accessTtl.toSeconds();
+	}
+
+	/**
+	 * Returns the claims if the signature is valid, the token is of the expected type, has not
+	 * expired and has not been revoked.
+	 */
+	public Optional<TokenClaims> verify(String token, String expectedType) {
+		int dot = token.indexOf('.');
+		if (dot <= 0 || dot == token.length() - 1) {
+			return Optional.empty();
+		}
+		try {
+			String payload = token.substring(0, dot);
+			byte[] signature = DECODER.decode(token.substring(dot + 1));
+			if (!MessageDigest.isEqual(sign(payload), signature)) {
+				return Optional.empty();
+			}
+			TokenClaims claims = objectMapper.readValue(DECODER.decode(payload), TokenClaims.class);
+			if (!expectedType.equals(claims.getType())
+					|| claims.getExp() <= Instant.now().getEpochSecond()
+					|| revoked.containsKey(claims.getJti())) {
+				return Optional.empty();
+			}
+			return Optional.of(claims);
+		} catch (IllegalArgumentException | IOException e) {
+			return Optional.empty();
+		}
+	}
+
+	public void revoke(TokenClaims claims) {
+		revoked.put(claims.getJti(), claims.getExp());
+	}
+
+	/**
+	 * Revokes the token and returns true, or returns false if it was already revoked. Lets
+	 * single-use tokens be consumed exactly once under concurrent requests.
+	 */
+	public boolean revokeOnce(TokenClaims claims) {
+		return revoked.putIfAbsent(claims.getJti(), claims.getExp()) == null;
+	}
+
+	@Scheduled(fixedDelayString = "${auth.token.revocation-sweep-interval-ms:60000}")
+	public void purgeRevoked() {
+		long now = Instant.now().getEpochSecond();
+		revoked.values().removeIf(exp -> exp <= now);
+	}
+
+	public User toPrincipal(TokenClaims claims) {
+		return User.builder()
+				.id(claims.getSub())
+				.email(claims.getEmail())
+				.name(claims.getName())
+				.role(claims.getRole())
+				.build();
+	}
+
+	private String issue(User user, String type, Duration ttl) {
+		TokenClaims claims = TokenClaims.builder()
+				.jti(UUID.randomUUID().toString())
+				.type(type)
+				.sub(user.getId())
+				.email(user.getEmail())
+				.name(user.getName())
+				.role(user.getRole())
+				.exp(Instant.now().plus(ttl).getEpochSecond())
+				.build();
+		try {
+			String payload = ENCODER.encodeToString(objectMapper.writeValueAsBytes(claims));
+			return payload + "." + ENCODER.encodeToString(sign(payload));
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Could not serialize token claims", e);
+		}
+	}
+
+	private byte[] sign(String payload) {
+		try {
+			Mac mac = Mac.getInstance(ALGORITHM);
+			mac.init(key);
+			return mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("HMAC unavailable", e);
+		}
+	}
+}
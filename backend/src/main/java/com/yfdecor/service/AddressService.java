@@ -9,6 +9,7 @@ import com.yfdecor.repository.AddressRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
@@ -20,6 +21,7 @@ public class AddressService {
 
 	private final AddressRepository addressRepository;
 
+	@Transactional
 	public List<AddressResponse> getAddresses(User user) {
 		return addressRepository.findByUser(user).stream()
 				.map(this::toResponse)
@@ -8,11 +8,14 @@ import com.yfdecor.model.Profile;
 import com.yfdecor.model.User;
 import com.yfdecor.repository.ProfileRepository;
 import com.yfdecor.repository.UserRepository;
-import jakarta.transaction.Transactional;
+import com.yfdecor.security.PasswordHashingService;
+import com.yfdecor.security.TokenClaims;
+import com.yfdecor.security.TokenService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 @Service
@@ -21,28 +24,37 @@ public class AuthService {
 
 	private final UserRepository userRepository;
 	private final ProfileRepository profileRepository;
-	private final PasswordEncoder passwordEncoder;
-
-	@Transactional
+	private final PasswordHashingService passwordHashingService;
+	private final TokenService tokenService;
+	private final TransactionTemplate transactionTemplate;
+
+	/**
+	 * Not transactional: the password is hashed before the transaction opens, so no pooled
+	 * connection is held while the request waits on the hashing pool.
+	 */
 	public AuthResponse register(RegisterRequest request) {
 
 		if (userRepository.existsByEmail(request.getEmail())) {
 			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Email already registered");
 		}
-
-		User user = User.builder()
-				.email(request.getEmail())
-				.name(request.getName())
-				.password(passwordEncoder.encode(request.getPassword()))
-				.role("USER")
-				.build();
-
-		user = userRepository.save(user);
-
-		Profile profile = Profile.builder()
-				.user(user)
-				.build();
-		profileRepository.save(profile);
+		String encodedPassword = passwordHashingService.encode(request.getPassword());
+
+		User user = transactionTemplate.execute(status -> {
+			// Checked again in the transaction in case the same email registered while hashing
+			if (userRepository.existsByEmail(request.getEmail())) {
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Email already registered");
+			}
+			User created = userRepository.save(User.builder()
+					.email(request.getEmail())
+					.name(request.getName())
+					.password(encodedPassword)
+					.role("USER")
+					.build());
+			profileRepository.save(Profile.builder()
+					.user(created)
+					.build());
+			return created;
+		});
 
 		return buildResponse(user);
 	}
@@ -54,13 +66,41 @@ public class AuthService {
 						new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid credentials")
 				);
 
-		if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+		if (!passwordHashingService.matches(request.getPassword(), user.getPassword())) {
 			throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid credentials");
 		}
 
+		if (passwordHashingService.needsRehash(user.getPassword())) {
+			user.setPassword(passwordHashingService.encode(request.getPassword()));
+			user = userRepository.save(user);
+		}
+
 		return buildResponse(user);
 	}
 
+	/**
+	 * Exchanges a refresh token for a new token pair. The presented refresh token is revoked,
+	 * so each one can be used once.
+	 */
+	public AuthResponse refresh(String refreshToken) {
+		TokenClaims claims = tokenService.verify(refreshToken, TokenService.REFRESH)
+				.filter(tokenService::revokeOnce)
+				.orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid refresh token"));
+		User user = userRepository.findById(claims.getSub())
+				.orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid refresh token"));
+		return buildResponse(user);
+	}
+
+	public void logout(String accessToken, String refreshToken) {
+		if (accessToken != null) {
+			tokenService.verify(accessToken, TokenService.ACCESS).ifPresent(tokenService::revoke);
+		}
+		if (refreshToken != null) {
+			tokenService.verify(refreshToken, TokenService.REFRESH).ifPresent(tokenService::revoke);
+		}
+	}
+
+	@Transactional
 	public UserResponse getMe(String email) {
 
 		User user = userRepository.findByEmail(email)
@@ -84,10 +124,14 @@ public class AuthService {
 						.name(user.getName())
 						.role(user.getRole())
 						.build())
+				.accessToken(tokenService.issueAccessToken(user))
+				.refreshToken(tokenService.issueRefreshToken(user))
+				.tokenType("Bearer")
+				.expiresIn(tokenService.getAccessTtlSeconds())
 				.build();
 	}
 
 	public String encodedPassword(String password){
-		return passwordEncoder.encode(password);
+		return passwordHashingService.encode(password);
 	}
 }
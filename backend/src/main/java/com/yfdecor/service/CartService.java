@@ -1,37 +1,50 @@
 
 package com.yfdecor.service;
 
+import com.yfdecor.cart.CartLine;
+import com.yfdecor.cart.CartStore;
 import com.yfdecor.dto.request.CartItemRequest;
 import com.yfdecor.dto.response.CartItemResponse;
+import com.yfdecor.dto.response.CartQuoteLineResponse;
+import com.yfdecor.dto.response.CartQuoteResponse;
 import com.yfdecor.dto.response.ProductResponse;
-import com.yfdecor.model.CartItem;
-import com.yfdecor.model.Product;
+import com.yfdecor.inventory.StockReservationService;
 import com.yfdecor.model.User;
-import com.yfdecor.repository.CartItemRepository;
-import com.yfdecor.repository.ProductRepository;
-import com.yfdecor.repository.UserRepository;
-import jakarta.transaction.Transactional;
+import com.yfdecor.pricing.Money;
+import com.yfdecor.pricing.PriceSheet;
+import com.yfdecor.pricing.PricingEngine;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.stream.Collectors;
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class CartService {
 
-	private final CartItemRepository cartItemRepository;
-	private final ProductRepository productRepository;
+	private final CartStore cartStore;
+	private final ProductService productService;
+	private final StockReservationService stockReservationService;
+	private final PricingEngine pricingEngine;
 
 	/* ===================== GET CART ===================== */
-	public List<CartItemResponse> getCart(Long id) {
-		return cartItemRepository.findById(id)
+	@Transactional
+	public List<CartItemResponse> getCart(User user) {
+		List<CartLine> lines = cartStore.getLines(user.getId());
+		Map<Long, ProductResponse> products = productService.getProductsByIds(
+						lines.stream().map(CartLine::getProductId).collect(Collectors.toList()))
 				.stream()
-				.map(this::toResponse)
+				.collect(Collectors.toMap(ProductResponse::getId, p -> p));
+		return lines.stream()
+				.filter(line -> products.containsKey(line.getProductId()))
+				.map(line -> toResponse(line, products.get(line.getProductId())))
 				.collect(Collectors.toList());
 	}
 
@@ -43,27 +56,20 @@ public class CartService {
 					HttpStatus.BAD_REQUEST, "Quantity must be greater than zero");
 		}
 
-		Product product = productRepository.findById(request.getProductId())
-				.orElseThrow(() -> new ResponseStatusException(
-						HttpStatus.NOT_FOUND, "Product not found"));
+		ProductResponse product = productService.getProductById(request.getProductId());
 
-		CartItem item = cartItemRepository
-				.findByUserAndProduct(user, product)
-				.orElse(CartItem.builder()
-						.user(user)
-						.product(product)
-						.quantity(0)
-						.build());
+		int currentQuantity = cartStore.findByProduct(user.getId(), product.getId())
+				.map(CartLine::getQuantity)
+				.orElse(0);
 
-		int newQuantity = item.getQuantity() + request.getQuantity();
+		int newQuantity = currentQuantity + request.getQuantity();
 
-		if (newQuantity > product.getStock()) {
+		if (newQuantity > stockReservationService.available(product.getId())) {
 			throw new ResponseStatusException(
 					HttpStatus.BAD_REQUEST, "Not enough stock");
 		}
 
-		item.setQuantity(newQuantity);
-		return toResponse(cartItemRepository.save(item));
+		return toResponse(cartStore.setQuantity(user.getId(), product.getId(), newQuantity), product);
 	}
 
 	/* ===================== UPDATE CART ITEM ===================== */
@@ -74,92 +80,154 @@ public class CartService {
 					HttpStatus.BAD_REQUEST, "Quantity must be greater than zero");
 		}
 
-		CartItem item = cartItemRepository.findById(cartItemId)
+		CartLine line = cartStore.findLine(user.getId(), cartItemId)
 				.orElseThrow(() -> new ResponseStatusException(
 						HttpStatus.NOT_FOUND, "Cart item not found"));
 
-		if (!item.getUser().getId().equals(user.getId())) {
-			throw new ResponseStatusException(
-					HttpStatus.FORBIDDEN, "Not your cart item");
-		}
+		ProductResponse product = productService.getProductById(line.getProductId());
 
-		Product product = item.getProduct();
-
-		if (request.getQuantity() > product.getStock()) {
+		if (request.getQuantity() > stockReservationService.available(product.getId())) {
 			throw new ResponseStatusException(
 					HttpStatus.BAD_REQUEST, "Not enough stock");
 		}
 
-		item.setQuantity(request.getQuantity());
-		return toResponse(cartItemRepository.save(item));
+		return toResponse(cartStore.setQuantity(user.getId(), product.getId(), request.getQuantity()), product);
 	}
 
 	/* ===================== REMOVE CART ITEM ===================== */
 	public void removeCartItem(User user, Long cartItemId) {
 
-		CartItem item = cartItemRepository.findById(cartItemId)
+		CartLine line = cartStore.findLine(user.getId(), cartItemId)
 				.orElseThrow(() -> new ResponseStatusException(
 						HttpStatus.NOT_FOUND, "Cart item not found"));
 
-		if (!item.getUser().getId().equals(user.getId())) {
-			throw new ResponseStatusException(
-					HttpStatus.FORBIDDEN, "Not your cart item");
-		}
-
-		cartItemRepository.delete(item);
+		cartStore.removeLine(user.getId(), line.getId());
 	}
 
 	/* ===================== CLEAR CART ===================== */
 	public void clearCart(User user) {
-		cartItemRepository.deleteByUser(user);
+		cartStore.clear(user.getId());
 	}
 
 	/* ===================== MERGE GUEST CART ===================== */
-	public void mergeCart(User user, List<CartItemRequest> guestCart) {
+	public List<CartItemResponse> mergeCart(User user, List<CartItemRequest> guestCart) {
 
+		Map<Long, Integer> guestQuantities = new LinkedHashMap<>();
 		for (CartItemRequest req : guestCart) {
+			if (req.getProductId() != null && req.getQuantity() != null && req.getQuantity() > 0) {
+				guestQuantities.merge(req.getProductId(), req.getQuantity(), Integer::sum);
+			}
+		}
+		if (guestQuantities.isEmpty()) {
+			return getCart(user);
+		}
 
-			if (req.getQuantity() <= 0) continue;
-
-			Product product = productRepository.findById(req.getProductId())
-					.orElse(null);
-			if (product == null || product.getStock() <= 0) continue;
-
-			CartItem item = cartItemRepository
-					.findByUserAndProduct(user, product)
-					.orElse(CartItem.builder()
-							.user(user)
-							.product(product)
-							.quantity(0)
-							.build());
+		Map<Long, Integer> existing = cartStore.getLines(user.getId()).stream()
+				.collect(Collectors.toMap(CartLine::getProductId, CartLine::getQuantity, Integer::sum));
+		Map<Long, ProductResponse> products = productService.getProductsByIds(new ArrayList<>(guestQuantities.keySet()))
+				.stream()
+				.collect(Collectors.toMap(ProductResponse::getId, p -> p));
+
+		Map<Long, Integer> merged = new LinkedHashMap<>();
+		guestQuantities.forEach((productId, quantity) -> {
+			ProductResponse product = products.get(productId);
+			if (product == null) return;
+			int available = stockReservationService.available(productId);
+			if (available <= 0) return;
+			merged.put(productId, Math.min(available, existing.getOrDefault(productId, 0) + quantity));
+		});
+
+		cartStore.setQuantities(user.getId(), merged);
+		return getCart(user);
+	}
 
-			int newQuantity = Math.min(
-					product.getStock(),
-					item.getQuantity() + req.getQuantity()
-			);
+	/* ===================== QUOTE ===================== */
+	/**
+	 * Prices the cart as checkout would, from the product cache and reservation counters
+	 * only. Lines that cannot be bought in full are priced at the quantity available now
+	 * and flagged. Quotes the stored cart unless the client sends its own lines.
+	 */
+	@Transactional
+	public CartQuoteResponse quote(User user, List<CartItemRequest> requested) {
+		List<CartLine> lines = requested == null || requested.isEmpty()
+				? cartStore.getLines(user.getId())
+				: requested.stream()
+						.filter(req -> req.getProductId() != null && req.getQuantity() != null && req.getQuantity() > 0)
+						.map(req -> CartLine.builder().productId(req.getProductId()).quantity(req.getQuantity()).build())
+						.collect(Collectors.toList());
+		Map<Long, ProductResponse> products = productService.getProductsByIds(
+						lines.stream().map(CartLine::getProductId).distinct().collect(Collectors.toList()))
+				.stream()
+				.collect(Collectors.toMap(ProductResponse::getId, p -> p));
+
+		PriceSheet sheet = new PriceSheet(lines.size());
+		int[] sheetLine = new int[lines.size()];
+		int[] available = new int[lines.size()];
+		boolean valid = true;
+		for (int i = 0; i < lines.size(); i++) {
+			CartLine line = lines.get(i);
+			ProductResponse product = products.get(line.getProductId());
+			sheetLine[i] = -1;
+			if (product == null) {
+				valid = false;
+				continue;
+			}
+			available[i] = Math.max(stockReservationService.available(product.getId()), 0);
+			int quantity = Math.min(line.getQuantity(), available[i]);
+			valid &= quantity == line.getQuantity();
+			if (quantity > 0) {
+				sheetLine[i] = sheet.addLine(
+						Money.toCents(product.getPrice()), Money.toCents(product.getDiscount()), quantity);
+			}
+		}
+		pricingEngine.price(sheet);
 
-			item.setQuantity(newQuantity);
-			cartItemRepository.save(item);
+		List<CartQuoteLineResponse> quoted = new ArrayList<>(lines.size());
+		for (int i = 0; i < lines.size(); i++) {
+			CartLine line = lines.get(i);
+			quoted.add(toQuoteLine(line, products.get(line.getProductId()), available[i], sheet, sheetLine[i]));
 		}
+		return CartQuoteResponse.builder()
+				.lines(quoted)
+				.valid(valid)
+				.listTotal(Money.toAmount(sheet.getListTotal()))
+				.discountTotal(Money.toAmount(sheet.getDiscountTotal()))
+				.promotionTotal(Money.toAmount(sheet.getPromotionTotal()))
+				.itemsTotal(Money.toAmount(sheet.getItemsTotal()))
+				.deliveryCharge(Money.toAmount(sheet.getDeliveryCharge()))
+				.grandTotal(Money.toAmount(sheet.getGrandTotal()))
+				.build();
 	}
 
 	/* ===================== MAPPER ===================== */
-	private CartItemResponse toResponse(CartItem item) {
-		Product p = item.getProduct();
+	private CartQuoteLineResponse toQuoteLine(CartLine line, ProductResponse product, int available,
+			PriceSheet sheet, int sheetLine) {
+		CartQuoteLineResponse.CartQuoteLineResponseBuilder quote = CartQuoteLineResponse.builder()
+				.cartItemId(line.getId())
+				.productId(line.getProductId())
+				.requestedQuantity(line.getQuantity());
+		if (product == null) {
+			return quote.quantity(0).availableQuantity(0).status("unavailable").build();
+		}
+		quote.name(product.getName())
+				.availableQuantity(available)
+				.unitPrice(product.getPrice());
+		if (sheetLine < 0) {
+			return quote.quantity(0).status("out_of_stock").build();
+		}
+		return quote.quantity(sheet.quantity(sheetLine))
+				.status(sheet.quantity(sheetLine) < line.getQuantity() ? "insufficient_stock" : "ok")
+				.unitDiscount(Money.toAmount(sheet.unitDiscount(sheetLine)))
+				.unitNetPrice(Money.toAmount(sheet.unitNetPrice(sheetLine)))
+				.lineTotal(Money.toAmount(sheet.lineTotal(sheetLine)))
+				.build();
+	}
 
+	private CartItemResponse toResponse(CartLine line, ProductResponse product) {
 		return CartItemResponse.builder()
-				.id(item.getId())
-				.quantity(item.getQuantity())
-				.product(ProductResponse.builder()
-						.id(p.getId())
-						.name(p.getName())
-						.slug(p.getSlug())
-						.description(p.getDescription())
-						.imageUrl(p.getImageUrl())
-						.stock(p.getStock())
-						.price(p.getPrice())
-						.discount(p.getDiscount())
-						.build())
+				.id(line.getId())
+				.quantity(line.getQuantity())
+				.product(product)
 				.build();
 	}
 }
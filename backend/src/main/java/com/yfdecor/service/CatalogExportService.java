@@ -0,0 +1,276 @@
+package com.yfdecor.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.yfdecor.repository.CatalogExportJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Writes the catalog as NDJSON or CSV straight from a streaming JDBC result set. Nothing is
+ * collected in memory: each row is encoded and written as it arrives, and the output is
+ * flushed every {@code catalog.export.flush-rows} rows so clients see data while the
+ * export runs.
+ */
+@Slf4j
+@Service
+public class CatalogExportService {
+
+	private static final String[] CSV_HEADER = {"id", "name", "slug", "description", "imageUrl", "stock", "price",
+			"discount", "categoryId", "categorySlug", "categoryName", "updatedAt"};
+
+	public enum Format {
+		NDJSON("application/x-ndjson", "ndjson"),
+		CSV("text/csv;charset=UTF-8", "csv");
+
+		private static final MediaType CSV_MEDIA_TYPE = MediaType.valueOf("text/csv");
+
+		private final String contentType;
+		private final String extension;
+
+		Format(String contentType, String extension) {
+			this.contentType = contentType;
+			this.extension = extension;
+		}
+
+		public String getContentType() {
+			return contentType;
+		}
+
+		public String getExtension() {
+			return extension;
+		}
+
+		public static Format parse(String format) {
+			for (Format candidate : values()) {
+				if (candidate.extension.equalsIgnoreCase(format)) {
+					return candidate;
+				}
+			}
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported catalog format: " + format);
+		}
+
+		/**
+		 * The format a request body declares through its Content-Type: CSV for text/csv, NDJSON
+		 * for anything else.
+		 */
+		public static Format forContentType(MediaType contentType) {
+			return contentType != null && contentType.isCompatibleWith(CSV_MEDIA_TYPE) ? CSV : NDJSON;
+		}
+	}
+
+	private final CatalogExportJdbcRepository exportRepository;
+	private final TransactionTemplate readOnlyTransaction;
+	private final JsonFactory jsonFactory = new JsonFactory();
+	private final int flushRows;
+	private final Duration watermarkLag;
+	private final Duration timeout;
+	private final Semaphore slots;
+
+	public CatalogExportService(CatalogExportJdbcRepository exportRepository,
+			PlatformTransactionManager transactionManager,
+			@Value("${catalog.export.flush-rows:1000}") int flushRows,
+			@Value("${catalog.export.watermark-lag:PT1M}") Duration watermarkLag,
+			@Value("${catalog.export.timeout:PT30M}") Duration timeout,
+			@Value("${catalog.export.max-concurrent:2}") int maxConcurrent) {
+		this.exportRepository = exportRepository;
+		// Read-only so the long-running cursor is served by the replica pool when one is configured
+		this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+		this.readOnlyTransaction.setReadOnly(true);
+		this.flushRows = flushRows;
+		this.watermarkLag = watermarkLag;
+		this.timeout = timeout;
+		this.slots = new Semaphore(maxConcurrent);
+	}
+
+	/**
+	 * Claims one of the {@code catalog.export.max-concurrent} export slots, or fails with 429
+	 * when they are all taken. Every running export pins a pooled connection for as long as
+	 * the client keeps reading, so the cap keeps anonymous exports from draining the pool.
+	 */
+	public Slot acquireSlot() {
+		if (!slots.tryAcquire()) {
+			throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many catalog exports running, retry later");
+		}
+		return new Slot();
+	}
+
+	/**
+	 * How long a single export may stream before the request is timed out.
+	 */
+	public Duration getTimeout() {
+		return timeout;
+	}
+
+	/**
+	 * Streams the export and, before the first row is written, hands {@code watermark} the
+	 * {@code updatedSince} a client should send for its next incremental pull (null when the
+	 * catalog is empty and no {@code updatedSince} was given). The watermark is the newest
+	 * {@code updated_at} read in the export's own transaction, so it only covers what the
+	 * export could see even on a lagging replica, less {@code catalog.export.watermark-lag}
+	 * so rows stamped just before a slow commit are not skipped; the overlap means a few rows
+	 * may be delivered twice.
+	 */
+	public void export(Format format, LocalDateTime updatedSince, Consumer<LocalDateTime> watermark, OutputStream out)
+			throws IOException {
+		long started = System.nanoTime();
+		long rows;
+		try {
+			rows = readOnlyTransaction.execute(status -> {
+				// On MySQL this first read fixes the transaction's snapshot, so the stream sees the same rows
+				LocalDateTime latest = exportRepository.findLatestUpdate();
+				watermark.accept(latest == null ? updatedSince : latest.minus(watermarkLag));
+				try {
+					return format == Format.NDJSON ? writeNdjson(updatedSince, out) : writeCsv(updatedSince, out);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		log.info("Catalog export wrote {} {} rows in {} ms", rows, format.getExtension(),
+				(System.nanoTime() - started) / 1_000_000);
+	}
+
+	private long writeNdjson(LocalDateTime updatedSince, OutputStream out) throws IOException {
+		long[] rows = {0};
+		try (JsonGenerator json = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+			json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			// One object per line: the newline below replaces the default space between root values
+			json.setRootValueSeparator(null);
+			exportRepository.streamProducts(updatedSince, rs -> {
+				try {
+					json.writeStartObject();
+					json.writeNumberField("id", rs.getLong("id"));
+					json.writeStringField("name", rs.getString("name"));
+					json.writeStringField("slug", rs.getString("slug"));
+					json.writeStringField("description", rs.getString("description"));
+					json.writeStringField("imageUrl", rs.getString("image_url"));
+					json.writeNumberField("stock", rs.getInt("stock"));
+					json.writeNumberField("price", rs.getDouble("price"));
+					writeNullableNumber(json, "discount", rs, "discount");
+					json.writeNumberField("categoryId", rs.getLong("category_id"));
+					json.writeStringField("categorySlug", rs.getString("category_slug"));
+					json.writeStringField("categoryName", rs.getString("category_name"));
+					json.writeStringField("updatedAt", timestamp(rs));
+					json.writeEndObject();
+					json.writeRaw('\n');
+					if (++rows[0] % flushRows == 0) {
+						json.flush();
+					}
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		}
+		return rows[0];
+	}
+
+	private long writeCsv(LocalDateTime updatedSince, OutputStream out) throws IOException {
+		long[] rows = {0};
+		Writer csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+		writeCsvLine(csv, CSV_HEADER);
+		exportRepository.streamProducts(updatedSince, rs -> {
+			try {
+				writeCsvLine(csv, new String[]{
+						Long.toString(rs.getLong("id")),
+						rs.getString("name"),
+						rs.getString("slug"),
+						rs.getString("description"),
+						rs.getString("image_url"),
+						Integer.toString(rs.getInt("stock")),
+						Double.toString(rs.getDouble("price")),
+						rs.getObject("discount") == null ? null : Double.toString(rs.getDouble("discount")),
+						Long.toString(rs.getLong("category_id")),
+						rs.getString("category_slug"),
+						rs.getString("category_name"),
+						timestamp(rs)});
+				if (++rows[0] % flushRows == 0) {
+					csv.flush();
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+		csv.flush();
+		return rows[0];
+	}
+
+	/**
+	 * A claimed export slot. Closing it more than once gives the permit back only once.
+	 */
+	public final class Slot implements AutoCloseable {
+
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		private Slot() {
+		}
+
+		@Override
+		public void close() {
+			if (released.compareAndSet(false, true)) {
+				slots.release();
+			}
+		}
+	}
+
+	private static void writeNullableNumber(JsonGenerator json, String field, ResultSet rs, String column)
+			throws SQLException, IOException {
+		double value = rs.getDouble(column);
+		if (rs.wasNull()) {
+			json.writeNullField(field);
+		} else {
+			json.writeNumberField(field, value);
+		}
+	}
+
+	private static String timestamp(ResultSet rs) throws SQLException {
+		Timestamp updatedAt = rs.getTimestamp("updated_at");
+		return updatedAt == null ? null : updatedAt.toLocalDateTime().toString();
+	}
+
+	private static void writeCsvLine(Writer csv, String[] fields) throws IOException {
+		for (int i = 0; i < fields.length; i++) {
+			if (i > 0) {
+				csv.write(',');
+			}
+			String field = fields[i];
+			if (field == null) {
+				continue;
+			}
+			if (field.indexOf(',') >= 0 || field.indexOf('"') >= 0 || field.indexOf('\n') >= 0
+					|| field.indexOf('\r') >= 0) {
+				csv.write('"');
+				csv.write(field.replace("\"", "\"\""));
+				csv.write('"');
+			} else {
+				csv.write(field);
+			}
+		}
+		csv.write("\r\n");
+	}
+}
@@ -0,0 +1,241 @@
+package com.yfdecor.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yfdecor.cache.CategoryCatalogCache;
+import com.yfdecor.dto.response.CatalogImportErrorResponse;
+import com.yfdecor.dto.response.CatalogImportResponse;
+import com.yfdecor.dto.response.CategoryResponse;
+import com.yfdecor.event.CatalogChangedEvent;
+import com.yfdecor.ingest.CsvProductRowReader;
+import com.yfdecor.ingest.NdjsonProductRowReader;
+import com.yfdecor.ingest.ProductImportRow;
+import com.yfdecor.ingest.ProductRowReader;
+import com.yfdecor.ingest.ProductRowValidator;
+import com.yfdecor.ingest.ProductUpsert;
+import com.yfdecor.repository.ProductImportJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Loads products in bulk from the CSV or NDJSON the export writes. The input is read as a
+ * stream in chunks of {@code catalog.import.batch-size} rows; each chunk is validated in
+ * parallel and its valid rows are upserted by slug in one JDBC batch and transaction. Bad
+ * rows are reported with their line and skipped, and the catalog caches are rebuilt once
+ * when the import ends, however it ends, if anything was written.
+ */
+@Slf4j
+@Service
+public class CatalogImportService {
+
+	private final ProductImportJdbcRepository importRepository;
+	private final CategoryCatalogCache categoryCache;
+	private final ApplicationEventPublisher eventPublisher;
+	private final ObjectMapper objectMapper;
+	private final TransactionTemplate transaction;
+	private final int defaultBatchSize;
+	private final int maxBatchSize;
+	private final int maxErrors;
+
+	public CatalogImportService(ProductImportJdbcRepository importRepository, CategoryCatalogCache categoryCache,
+			ApplicationEventPublisher eventPublisher, ObjectMapper objectMapper,
+			PlatformTransactionManager transactionManager,
+			@Value("${catalog.import.batch-size:500}") int defaultBatchSize,
+			@Value("${catalog.import.max-batch-size:5000}") int maxBatchSize,
+			@Value("${catalog.import.max-errors:1000}") int maxErrors) {
+		this.importRepository = importRepository;
+		this.categoryCache = categoryCache;
+		this.eventPublisher = eventPublisher;
+		this.objectMapper = objectMapper;
+		this.transaction = new TransactionTemplate(transactionManager);
+		this.defaultBatchSize = defaultBatchSize;
+		this.maxBatchSize = maxBatchSize;
+		this.maxErrors = maxErrors;
+	}
+
+	/**
+	 * Imports every row of the input. Existing products keep their current stock unless
+	 * {@code updateStock} is set, since stock is decremented live by checkout.
+	 */
+	public CatalogImportResponse importProducts(CatalogExportService.Format format, InputStream in,
+			Integer batchSize, boolean updateStock) {
+		int size = batchSize == null ? defaultBatchSize : batchSize;
+		if (size < 1 || size > maxBatchSize) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"batchSize must be between 1 and " + maxBatchSize);
+		}
+		long started = System.nanoTime();
+		ProductRowValidator validator = new ProductRowValidator(categoryCache.getAll().stream()
+				.collect(Collectors.toMap(CategoryResponse::getSlug, CategoryResponse::getId)));
+		BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+
+		ProductRowReader rows;
+		try {
+			rows = format == CatalogExportService.Format.NDJSON
+					? new NdjsonProductRowReader(reader, objectMapper)
+					: new CsvProductRowReader(reader);
+		} catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+		} catch (IOException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unreadable import: " + e.getMessage());
+		}
+
+		Progress progress = new Progress(maxErrors);
+		boolean completed = true;
+		List<ProductImportRow> chunk = new ArrayList<>(size);
+		try {
+			try {
+				ProductImportRow row;
+				while ((row = rows.next()) != null) {
+					chunk.add(row);
+					if (chunk.size() == size) {
+						importChunk(chunk, validator, progress, updateStock);
+						chunk.clear();
+					}
+				}
+			} catch (IOException e) {
+				// Unreadable input (broken quoting, truncated gzip, dropped upload): keep what was read so far
+				completed = false;
+				progress.error(null, null, "Import stopped: " + e.getMessage());
+			}
+			if (!chunk.isEmpty()) {
+				importChunk(chunk, validator, progress, updateStock);
+			}
+		} finally {
+			if (progress.inserted + progress.updated > 0) {
+				// One full refresh instead of an event per batch; listeners rebuild from the database.
+				// Chunks are committed as they go, so this also runs when a later chunk throws.
+				eventPublisher.publishEvent(CatalogChangedEvent.all());
+			}
+		}
+
+		long durationMs = (System.nanoTime() - started) / 1_000_000;
+		double rowsPerSecond = Math.round(progress.read * 10_000.0 / Math.max(durationMs, 1)) / 10.0;
+		log.info("Catalog import read {} {} rows in {} ms ({} rows/s): {} inserted, {} updated, {} failed",
+				progress.read, format.getExtension(), durationMs, rowsPerSecond, progress.inserted, progress.updated,
+				progress.failed);
+		return CatalogImportResponse.builder()
+				.format(format.getExtension())
+				.rowsRead(progress.read)
+				.inserted(progress.inserted)
+				.updated(progress.updated)
+				.failed(progress.failed)
+				.durationMs(durationMs)
+				.rowsPerSecond(rowsPerSecond)
+				.completed(completed)
+				.errors(progress.errors)
+				.errorsTruncated(progress.truncated)
+				.build();
+	}
+
+	private void importChunk(List<ProductImportRow> chunk, ProductRowValidator validator, Progress progress,
+			boolean updateStock) {
+		int n = chunk.size();
+		ProductUpsert[] valid = new ProductUpsert[n];
+		String[] errors = new String[n];
+		// Reading is sequential, checking is not: validation only needs the category map
+		IntStream.range(0, n).parallel().forEach(i -> {
+			try {
+				valid[i] = validator.validate(chunk.get(i));
+			} catch (IllegalArgumentException e) {
+				errors[i] = e.getMessage();
+			}
+		});
+
+		List<ProductUpsert> batch = new ArrayList<>(n);
+		for (int i = 0; i < n; i++) {
+			progress.read++;
+			if (errors[i] != null) {
+				progress.fail(chunk.get(i).getLine(), chunk.get(i).getSlug(), errors[i]);
+			} else {
+				batch.add(valid[i]);
+			}
+		}
+		if (batch.isEmpty()) {
+			return;
+		}
+		try {
+			progress.written(batch.size(), upsert(batch, updateStock));
+		} catch (DataAccessException e) {
+			// A single bad row fails the whole batch; retry row by row to pin it down
+			log.warn("Import batch ending at line {} failed, retrying row by row: {}",
+					batch.get(batch.size() - 1).getLine(), e.getMostSpecificCause().getMessage());
+			for (ProductUpsert row : batch) {
+				try {
+					progress.written(1, upsert(List.of(row), updateStock));
+				} catch (DataAccessException rowError) {
+					progress.fail(row.getLine(), row.getSlug(), rowError.getMostSpecificCause().getMessage());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Upserts the rows in one transaction and returns how many of them were new products.
+	 */
+	private int upsert(List<ProductUpsert> rows, boolean updateStock) {
+		return transaction.execute(status -> {
+			Set<String> existing = importRepository.findExistingSlugs(
+					rows.stream().map(ProductUpsert::getSlug).collect(Collectors.toSet()));
+			importRepository.upsert(rows, updateStock);
+			int inserted = 0;
+			for (ProductUpsert row : rows) {
+				// A slug repeated within the batch is an insert the first time and an update after
+				if (existing.add(row.getSlug())) {
+					inserted++;
+				}
+			}
+			return inserted;
+		});
+	}
+
+	private static final class Progress {
+
+		private final int maxErrors;
+		private final List<CatalogImportErrorResponse> errors = new ArrayList<>();
+		private long read;
+		private long inserted;
+		private long updated;
+		private long failed;
+		private boolean truncated;
+
+		Progress(int maxErrors) {
+			this.maxErrors = maxErrors;
+		}
+
+		void written(int rows, int newRows) {
+			inserted += newRows;
+			updated += rows - newRows;
+		}
+
+		void fail(Long line, String slug, String message) {
+			failed++;
+			error(line, slug, message);
+		}
+
+		void error(Long line, String slug, String message) {
+			if (errors.size() < maxErrors) {
+				errors.add(CatalogImportErrorResponse.builder().line(line).slug(slug).message(message).build());
+			} else {
+				truncated = true;
+			}
+		}
+	}
+}
@@ -1,44 +1,28 @@
-
 package com.yfdecor.service;
 
+import com.yfdecor.cache.CategoryCatalogCache;
 import com.yfdecor.dto.response.CategoryResponse;
-import com.yfdecor.model.Category;
-import com.yfdecor.repository.CategoryRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
-import org.springframework.http.HttpStatus;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class CategoryService {
 
-	private final CategoryRepository categoryRepository;
+	private final CategoryCatalogCache categoryCache;
 
 	public List<CategoryResponse> getAllCategories() {
-		return categoryRepository.findAll().stream()
-				.map(this::toResponse)
-				.collect(Collectors.toList());
+		return categoryCache.getAll();
 	}
 
 	public CategoryResponse getCategoryBySlug(String slug) {
-		Category category = categoryRepository.findBySlug(slug)
+		return categoryCache.getBySlug(slug)
 				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Category not found"));
-		return toResponse(category);
-	}
-
-	private CategoryResponse toResponse(Category category) {
-		return CategoryResponse.builder()
-				.id(category.getId())
-				.name(category.getName())
-				.slug(category.getSlug())
-				.description(category.getDescription())
-				.imageUrl(category.getImageUrl())
-				.build();
 	}
 }
@@ -1,22 +1,42 @@
 
 package com.yfdecor.service;
 
+import com.yfdecor.cart.CartLine;
+import com.yfdecor.cart.CartStore;
 import com.yfdecor.dto.request.OrderRequest;
 import com.yfdecor.dto.response.AddressResponse;
+import com.yfdecor.dto.response.CursorPageResponse;
 import com.yfdecor.dto.response.OrderItemResponse;
 import com.yfdecor.dto.response.OrderResponse;
+import com.yfdecor.dto.response.ProductResponse;
+import com.yfdecor.dto.response.StockReservationResponse;
+import com.yfdecor.event.CatalogChangedEvent;
+import com.yfdecor.event.OrderPlacedEvent;
+import com.yfdecor.inventory.StockReservation;
+import com.yfdecor.inventory.StockReservationService;
 import com.yfdecor.model.*;
+import com.yfdecor.order.OrderNumberGenerator;
+import com.yfdecor.outbox.OutboxService;
+import com.yfdecor.pagination.KeysetCursor;
+import com.yfdecor.pricing.Money;
+import com.yfdecor.pricing.PriceSheet;
+import com.yfdecor.pricing.PricingEngine;
 import com.yfdecor.repository.*;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,134 +44,261 @@ import java.util.stream.Collectors;
 public class OrderService {
 
 	private final OrderRepository orderRepository;
-	private final CartItemRepository cartItemRepository;
+	private final CartStore cartStore;
 	private final ProductRepository productRepository;
+	private final ProductService productService;
 	private final AddressRepository addressRepository;
+	private final CheckoutJdbcRepository checkoutJdbcRepository;
+	private final StockReservationService stockReservationService;
+	private final ApplicationEventPublisher eventPublisher;
+	private final OutboxService outboxService;
+	private final OrderNumberGenerator orderNumberGenerator;
+	private final PricingEngine pricingEngine;
 
+	/**
+	 * Checks out the cart under a reservation from {@link #reserveCart}. Each reservation
+	 * places at most one order, so a repeated submit is rejected rather than ordering twice
+	 * (the cart itself is only cleared later, from the outbox).
+	 */
 	@Transactional
 	public OrderResponse placeOrder(User user, OrderRequest request) {
-		List<CartItem> cartItems = cartItemRepository.findByUser(user);
+		String reservationId = request.getReservationId();
+		if (reservationId == null || reservationId.isBlank()) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "reservationId is required; reserve the cart first");
+		}
+		if (orderRepository.existsByReservationId(reservationId)) {
+			throw new ResponseStatusException(HttpStatus.CONFLICT, "Order already placed for this reservation");
+		}
+		List<CartLine> cartItems = cartStore.getLines(user.getId());
 		if (cartItems.isEmpty()) {
 			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cart is empty");
 		}
 		Address address = addressRepository.findByIdAndUser(request.getAddressId(), user)
 				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Address not found"));
 
-		double total = 0;
+		List<Long> productIds = cartItems.stream()
+				.map(CartLine::getProductId)
+				.distinct()
+				.collect(Collectors.toList());
+		Map<Long, Product> products = productRepository.findAllById(productIds).stream()
+				.collect(Collectors.toMap(Product::getId, Function.identity()));
+
+		PriceSheet sheet = new PriceSheet(cartItems.size());
 		List<OrderItem> orderItems = new ArrayList<>();
-		for (CartItem cartItem : cartItems) {
-			Product product = productRepository.findById(cartItem.getProduct().getId())
-					.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found"));
-			if (cartItem.getQuantity() > product.getStock()) {
+		Map<Long, Integer> quantities = new LinkedHashMap<>();
+		for (CartLine cartItem : cartItems) {
+			Product product = products.get(cartItem.getProductId());
+			if (product == null) {
+				throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
+			}
+			int quantity = quantities.merge(product.getId(), cartItem.getQuantity(), Integer::sum);
+			if (quantity > product.getStock()) {
 				throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Not enough stock for " + product.getName());
 			}
-			double price = product.getPrice();
-			total += price * cartItem.getQuantity();
+			sheet.addLine(Money.toCents(product.getPrice()), Money.toCents(product.getDiscount()), cartItem.getQuantity());
 			orderItems.add(OrderItem.builder()
 					.product(product)
 					.quantity(cartItem.getQuantity())
-					.price(price)
 					.build());
 		}
+		pricingEngine.price(sheet);
+		for (int line = 0; line < orderItems.size(); line++) {
+			orderItems.get(line).setPrice(Money.toAmount(sheet.unitNetPrice(line)));
+		}
+		double total = Money.toAmount(sheet.getItemsTotal());
+		double promotion = Money.toAmount(sheet.getPromotionTotal());
+		double deliveryCharge = Money.toAmount(sheet.getDeliveryCharge());
 
-		double deliveryCharge = total >= 999 ? 0 : 99;
-		String orderNumber = generateOrderNumber();
+		StockReservation reservation = stockReservationService.claim(reservationId, user.getId(), quantities);
+		stockReservationService.settleWithTransaction(reservation);
+
+		// The reads above only shed load early; the conditional UPDATE is what guards against overselling.
+		List<Long> insufficient = checkoutJdbcRepository.decrementStock(quantities);
+		if (!insufficient.isEmpty()) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"Not enough stock for " + products.get(insufficient.get(0)).getName());
+		}
+
+		String orderNumber = orderNumberGenerator.nextOrderNumber();
 
 		Order order = Order.builder()
 				.user(user)
 				.orderNumber(orderNumber)
+				.reservationId(reservationId)
 				.totalAmount(total)
+				.promotionAmount(promotion)
 				.deliveryCharge(deliveryCharge)
 				.status("pending")
 				.createdAt(LocalDateTime.now())
 				.address(address)
 				.items(new ArrayList<>())
 				.build();
-		order = orderRepository.save(order);
+		try {
+			order = orderRepository.save(order);
+		} catch (DataIntegrityViolationException e) {
+			// Another instance placed an order for this reservation since the check above.
+			throw new ResponseStatusException(HttpStatus.CONFLICT, "Order already placed for this reservation");
+		}
 
 		for (OrderItem item : orderItems) {
 			item.setOrder(order);
-			productRepository.findById(item.getProduct().getId()).ifPresent(p -> {
-				p.setStock(p.getStock() - item.getQuantity());
-				productRepository.save(p);
-			});
 		}
-		order.getItems().addAll(orderItems);
-		order = orderRepository.save(order);
+		checkoutJdbcRepository.insertOrderItems(order.getId(), orderItems);
+		eventPublisher.publishEvent(CatalogChangedEvent.products(productIds));
 
-		cartItemRepository.deleteByUser(user);
+		// Cart cleanup, notifications and analytics run from the outbox after commit.
+		outboxService.append(order.getId(), OrderPlacedEvent.builder()
+				.orderId(order.getId())
+				.orderNumber(orderNumber)
+				.userId(user.getId())
+				.email(user.getEmail())
+				.totalAmount(total)
+				.deliveryCharge(deliveryCharge)
+				.quantities(quantities)
+				.placedAt(order.getCreatedAt())
+				.build());
 
-		return toResponse(order);
+		// The catalog cache is refreshed only after commit, so map the loaded rows net of this order.
+		Map<Long, ProductResponse> orderedProducts = new LinkedHashMap<>();
+		for (Product product : products.values()) {
+			ProductResponse response = productService.toResponse(product);
+			response.setStock(product.getStock() - quantities.get(product.getId()));
+			orderedProducts.put(product.getId(), response);
+		}
+		return toResponse(order, orderItems, orderedProducts);
 	}
 
-	public List<OrderResponse> getOrders(User user) {
-		return orderRepository.findByUser(user).stream()
-				.map(this::toResponse)
-				.collect(Collectors.toList());
+	/**
+	 * Holds stock for the user's current cart from the start of checkout until the order is
+	 * placed with the returned reservation id, or the reservation expires.
+	 */
+	@Transactional
+	public StockReservationResponse reserveCart(User user) {
+		List<CartLine> cartItems = cartStore.getLines(user.getId());
+		if (cartItems.isEmpty()) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cart is empty");
+		}
+		Map<Long, Integer> quantities = new LinkedHashMap<>();
+		for (CartLine cartItem : cartItems) {
+			quantities.merge(cartItem.getProductId(), cartItem.getQuantity(), Integer::sum);
+		}
+		StockReservation reservation = stockReservationService.reserve(user.getId(), quantities);
+		return StockReservationResponse.builder()
+				.reservationId(reservation.getId())
+				.expiresAt(reservation.getExpiresAt())
+				.build();
+	}
+
+	@Transactional
+	public List<OrderResponse> getOrders(User user, int page, int limit) {
+		List<Long> ids = orderRepository.findIdsByUser(user, PageRequest.of(Math.max(page - 1, 0), limit));
+		return loadOrders(ids);
 	}
 
+	/**
+	 * Newest-first order history that seeks on id rather than paging with OFFSET.
+	 */
+	@Transactional
+	public CursorPageResponse<OrderResponse> getOrdersBefore(User user, String cursor, int limit) {
+		KeysetCursor position = KeysetCursor.decode(cursor, KeysetCursor.SORT_ID);
+		Long beforeId = position == null ? Long.MAX_VALUE : position.getId();
+		List<Long> ids = orderRepository.findIdsBeforeId(user, beforeId, PageRequest.of(0, limit + 1));
+
+		boolean hasMore = ids.size() > limit;
+		List<Long> pageIds = hasMore ? ids.subList(0, limit) : ids;
+		return CursorPageResponse.<OrderResponse>builder()
+				.items(loadOrders(pageIds))
+				.nextCursor(hasMore ? KeysetCursor.afterId(pageIds.get(pageIds.size() - 1)).encode() : null)
+				.hasMore(hasMore)
+				.build();
+	}
+
+	@Transactional
 	public OrderResponse getOrderById(User user, Long id) {
-		Order order = orderRepository.findByIdAndUser(id, user)
+		Order order = orderRepository.findWithItemsByIdAndUser(id, user)
 				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found"));
-		return toResponse(order);
+		return toResponse(order, order.getItems(), productsOf(List.of(order)));
 	}
 
+	@Transactional
 	public OrderResponse getOrder(User user, Long id) {
 		return getOrderById(user, id);
 	}
 
+	@Transactional
 	public OrderResponse updateOrderStatus(User user, Long id, String status) {
-		Order order = orderRepository.findByIdAndUser(id, user)
+		Order order = orderRepository.findWithItemsByIdAndUser(id, user)
 				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found"));
 		order.setStatus(status);
 		order = orderRepository.save(order);
-		return toResponse(order);
+		return toResponse(order, order.getItems(), productsOf(List.of(order)));
 	}
 
-	private String generateOrderNumber() {
-		String base36 = Long.toString(System.currentTimeMillis(), 36).toUpperCase();
-		String random = randomAlphaNumeric(3);
-		return "YF" + base36 + random;
+	/**
+	 * Orders for the given ids, in id order, from one fetch-join query plus one batched
+	 * product lookup that is mostly served by the catalog cache.
+	 */
+	private List<OrderResponse> loadOrders(List<Long> ids) {
+		if (ids.isEmpty()) {
+			return List.of();
+		}
+		List<Order> orders = orderRepository.findWithItemsByIdIn(ids);
+		Map<Long, ProductResponse> products = productsOf(orders);
+		return orders.stream()
+				.map(order -> toResponse(order, order.getItems(), products))
+				.collect(Collectors.toList());
 	}
 
-	private String randomAlphaNumeric(int count) {
-		String chars = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
-		Random rnd = new Random();
-		StringBuilder sb = new StringBuilder(count);
-		for (int i = 0; i < count; i++) {
-			sb.append(chars.charAt(rnd.nextInt(chars.length())));
-		}
-		return sb.toString();
+	private Map<Long, ProductResponse> productsOf(List<Order> orders) {
+		List<Long> productIds = orders.stream()
+				.flatMap(order -> order.getItems().stream())
+				.map(item -> item.getProduct().getId())
+				.distinct()
+				.collect(Collectors.toList());
+		return productService.getProductsByIds(productIds).stream()
+				.collect(Collectors.toMap(ProductResponse::getId, Function.identity()));
 	}
 
-	private OrderResponse toResponse(Order order) {
+	/**
+	 * Items are passed separately because checkout inserts them with JDBC and never attaches
+	 * them to the managed order's collection.
+	 */
+	private OrderResponse toResponse(Order order, List<OrderItem> items, Map<Long, ProductResponse> products) {
 		return OrderResponse.builder()
 				.id(order.getId())
 				.orderNumber(order.getOrderNumber())
 				.totalAmount(order.getTotalAmount())
+				.promotionAmount(order.getPromotionAmount())
 				.deliveryCharge(order.getDeliveryCharge())
 				.status(order.getStatus())
 				.createdAt(order.getCreatedAt())
-				.items(order.getItems().stream().map(this::toItemResponse).collect(Collectors.toList()))
-				.address(AddressResponse.builder()
-						.id(order.getAddress().getId())
-						.name(order.getAddress().getName())
-						.phone(order.getAddress().getPhone())
-						.addressLine1(order.getAddress().getAddressLine1())
-						.addressLine2(order.getAddress().getAddressLine2())
-						.city(order.getAddress().getCity())
-						.state(order.getAddress().getState())
-						.country(order.getAddress().getCountry())
-						.zipCode(order.getAddress().getZipCode())
-						.isDefault(order.getAddress().getIsDefault())
-						.build())
+				.items(items.stream().map(item -> toItemResponse(item, products)).collect(Collectors.toList()))
+				.address(toAddressResponse(order.getAddress()))
+				.build();
+	}
+
+	private AddressResponse toAddressResponse(Address address) {
+		if (address == null) {
+			return null;
+		}
+		return AddressResponse.builder()
+				.id(address.getId())
+				.name(address.getName())
+				.phone(address.getPhone())
+				.addressLine1(address.getAddressLine1())
+				.addressLine2(address.getAddressLine2())
+				.city(address.getCity())
+				.state(address.getState())
+				.country(address.getCountry())
+				.zipCode(address.getZipCode())
+				.isDefault(address.getIsDefault())
 				.build();
 	}
 
-	private OrderItemResponse toItemResponse(OrderItem item) {
+	private OrderItemResponse toItemResponse(OrderItem item, Map<Long, ProductResponse> products) {
 		return OrderItemResponse.builder()
 				.id(item.getId())
-				.product(null) // Optionally map product
+				.product(products.get(item.getProduct().getId()))
 				.quantity(item.getQuantity())
 				.price(item.getPrice())
 				.build();
@@ -1,53 +1,222 @@
 
 package com.yfdecor.service;
 
+import com.yfdecor.cache.ProductCatalogCache;
 import com.yfdecor.dto.response.CategoryResponse;
+import com.yfdecor.dto.response.CursorPageResponse;
+import com.yfdecor.dto.response.ProductBatchResponse;
+import com.yfdecor.dto.response.ProductFacetResponse;
 import com.yfdecor.dto.response.ProductResponse;
 import com.yfdecor.model.Category;
 import com.yfdecor.model.Product;
 import com.yfdecor.repository.CategoryRepository;
+import com.yfdecor.pagination.KeysetCursor;
 import com.yfdecor.repository.ProductRepository;
-import lombok.RequiredArgsConstructor;
+import com.yfdecor.search.FacetedSearchResult;
+import com.yfdecor.search.ProductFacetIndex;
+import com.yfdecor.search.ProductFacetQuery;
+import com.yfdecor.search.ProductSearchIndex;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.http.HttpStatus;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class ProductService {
 
 	private final ProductRepository productRepository;
 	private final CategoryRepository categoryRepository;
+	private final ProductCatalogCache productCache;
+	private final ProductSearchIndex searchIndex;
+	private final ProductFacetIndex facetIndex;
+	private final int maxBatchIds;
+	private final int maxPageSize;
+
+	public ProductService(ProductRepository productRepository, CategoryRepository categoryRepository,
+			ProductCatalogCache productCache, ProductSearchIndex searchIndex, ProductFacetIndex facetIndex,
+			@Value("${catalog.batch.max-ids:200}") int maxBatchIds,
+			@Value("${catalog.page.max-limit:100}") int maxPageSize) {
+		this.productRepository = productRepository;
+		this.categoryRepository = categoryRepository;
+		this.productCache = productCache;
+		this.searchIndex = searchIndex;
+		this.facetIndex = facetIndex;
+		this.maxBatchIds = maxBatchIds;
+		this.maxPageSize = maxPageSize;
+	}
 
 	public List<ProductResponse> getAllProducts(Optional<String> categorySlug, Optional<String> search, int page, int limit) {
+		limit = pageSize(page, limit);
 		Pageable pageable = PageRequest.of(page - 1, limit);
-		Page<Product> products;
 		if (categorySlug.isPresent()) {
-			Category category = categoryRepository.findBySlug(categorySlug.get())
-					.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Category not found"));
-			products = productRepository.findByCategory(category, pageable);
+			String key = "category:" + categorySlug.get() + "|" + page + "|" + limit;
+			return productCache.getPage(key, () -> {
+				Category category = categoryRepository.findBySlug(categorySlug.get())
+						.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Category not found"));
+				return toResponses(productRepository.findByCategory(category, pageable));
+			});
 		} else if (search.isPresent()) {
-			products = productRepository.findByNameContainingIgnoreCase(search.get(), pageable);
+			if (!searchIndex.isReady()) {
+				return toResponses(productRepository.findByNameContainingIgnoreCase(search.get(), pageable));
+			}
+			List<Long> matches = searchIndex.search(search.get());
+			int from = (int) Math.min(pageable.getOffset(), matches.size());
+			int to = Math.min(from + limit, matches.size());
+			return getProductsByIds(matches.subList(from, to));
 		} else {
-			products = productRepository.findAll(pageable);
+			String key = "all|" + page + "|" + limit;
+			return productCache.getPage(key, () -> toResponses(productRepository.findAll(pageable)));
 		}
-		return products.stream().map(this::toResponse).collect(Collectors.toList());
+	}
+
+	/**
+	 * Listing with any mix of filters and sorts. Plain category or search listings keep using
+	 * the cached pages above; everything else is answered by the facet index.
+	 */
+	public List<ProductResponse> getAllProducts(ProductFacetQuery query) {
+		if (query.isPlainListing()) {
+			return getAllProducts(query.getCategories().stream().findFirst(), Optional.ofNullable(query.getText()),
+					query.getPage(), query.getLimit());
+		}
+		return findProducts(query).getItems();
+	}
+
+	public ProductFacetResponse findProducts(ProductFacetQuery query) {
+		int limit = pageSize(query.getPage(), query.getLimit());
+		if (limit != query.getLimit()) {
+			query = query.toBuilder().limit(limit).build();
+		}
+		if (!ProductFacetQuery.isSupportedSort(query.getSort())) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported sort: " + query.getSort());
+		}
+		FacetedSearchResult result = facetIndex.search(query);
+		return ProductFacetResponse.builder()
+				.items(getProductsByIds(result.getProductIds()))
+				.total(result.getTotal())
+				.page(query.getPage())
+				.limit(query.getLimit())
+				.facets(query.isFacets() ? result.getFacets() : null)
+				.build();
+	}
+
+	/**
+	 * Keyset variant of {@link #getAllProducts}: seeks past the cursor instead of using OFFSET
+	 * and never issues a count query. One extra row is fetched to tell whether a next page exists.
+	 */
+	public CursorPageResponse<ProductResponse> getProductsAfter(Optional<String> categorySlug, String sort,
+			String cursor, int limit) {
+		if (!KeysetCursor.SORT_ID.equals(sort) && !KeysetCursor.SORT_PRICE.equals(sort)) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported sort: " + sort);
+		}
+		Long categoryId = categorySlug
+				.map(slug -> categoryRepository.findBySlug(slug)
+						.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Category not found"))
+						.getId())
+				.orElse(null);
+		limit = pageSize(1, limit);
+		KeysetCursor position = KeysetCursor.decode(cursor, sort);
+		Pageable window = PageRequest.of(0, limit + 1);
+		List<Product> products;
+		if (KeysetCursor.SORT_PRICE.equals(sort)) {
+			products = position == null
+					? productRepository.findPageAfterPrice(categoryId, -Double.MAX_VALUE, 0L, window)
+					: productRepository.findPageAfterPrice(categoryId, position.getPrice(), position.getId(), window);
+		} else {
+			products = productRepository.findPageAfterId(categoryId, position == null ? 0L : position.getId(), window);
+		}
+
+		boolean hasMore = products.size() > limit;
+		List<Product> pageItems = hasMore ? products.subList(0, limit) : products;
+		String nextCursor = null;
+		if (hasMore) {
+			Product last = pageItems.get(pageItems.size() - 1);
+			nextCursor = KeysetCursor.SORT_PRICE.equals(sort)
+					? KeysetCursor.afterPrice(last.getPrice(), last.getId()).encode()
+					: KeysetCursor.afterId(last.getId()).encode();
+		}
+		return CursorPageResponse.<ProductResponse>builder()
+				.items(pageItems.stream().map(this::toResponse).collect(Collectors.toList()))
+				.nextCursor(nextCursor)
+				.hasMore(hasMore)
+				.build();
 	}
 
 	public ProductResponse getProductById(Long id) {
-		Product product = productRepository.findById(id)
-				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found"));
-		return toResponse(product);
+		return productCache.getById(id, productId -> {
+			Product product = productRepository.findById(productId)
+					.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found"));
+			return toResponse(product);
+		});
+	}
+
+	public ProductResponse getProductBySlug(String slug) {
+		return productCache.getBySlug(slug, productSlug -> {
+			Product product = productRepository.findBySlug(productSlug)
+					.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found"));
+			return toResponse(product);
+		});
 	}
 
-	private ProductResponse toResponse(Product product) {
+	/**
+	 * Returns the products for the given ids in the same order, skipping ids that do not exist.
+	 */
+	public List<ProductResponse> getProductsByIds(List<Long> ids) {
+		Map<Long, ProductResponse> found = productCache.getAllById(ids, missing ->
+				productRepository.findAllById(missing).stream().map(this::toResponse).collect(Collectors.toList()));
+		List<ProductResponse> ordered = new ArrayList<>(ids.size());
+		for (Long id : ids) {
+			ProductResponse product = found.get(id);
+			if (product != null) {
+				ordered.add(product);
+			}
+		}
+		return ordered;
+	}
+
+	/**
+	 * Batch lookup for storefront strips: products come back in request order with duplicates
+	 * dropped, and ids that do not resolve are listed instead of failing the whole call.
+	 */
+	public ProductBatchResponse getProductBatch(List<Long> ids) {
+		if (ids == null || ids.isEmpty()) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At least one product id is required");
+		}
+		List<Long> distinct = ids.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+		if (distinct.size() > maxBatchIds) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"At most " + maxBatchIds + " product ids can be requested at once");
+		}
+		List<ProductResponse> products = getProductsByIds(distinct);
+		List<Long> missing = new ArrayList<>();
+		if (products.size() < distinct.size()) {
+			Set<Long> found = products.stream().map(ProductResponse::getId).collect(Collectors.toSet());
+			for (Long id : distinct) {
+				if (!found.contains(id)) {
+					missing.add(id);
+				}
+			}
+		}
+		return ProductBatchResponse.builder().products(products).missing(missing).build();
+	}
+
+	private List<ProductResponse> toResponses(Page<Product> products) {
+		return products.stream().map(this::toResponse).collect(Collectors.toList());
+	}
+
+	ProductResponse toResponse(Product product) {
 		return ProductResponse.builder()
 				.id(product.getId())
 				.name(product.getName())
@@ -66,4 +235,15 @@ public class ProductService {
 						.build())
 				.build();
 	}
+
+	/**
+	 * The page size to serve: limits above {@code catalog.page.max-limit} are clamped so page
+	 * sizes, and the page-cache keys built from them, stay bounded.
+	 */
+	private int pageSize(int page, int limit) {
+		if (page < 1 || limit < 1) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "page and limit must be positive");
+		}
+		return Math.min(limit, maxPageSize);
+	}
 }
@@ -10,6 +10,7 @@ import com.yfdecor.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 @Service
@@ -19,15 +20,20 @@ public class ProfileService {
 	private final ProfileRepository profileRepository;
 	private final UserRepository userRepository;
 
+	@Transactional
 	public ProfileResponse getProfile(User user) {
 		Profile profile = profileRepository.findByUser(user)
 				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Profile not found"));
 		return toResponse(user, profile);
 	}
 
+	@Transactional
 	public ProfileResponse updateProfile(User user, ProfileUpdateRequest request) {
 		Profile profile = profileRepository.findByUser(user)
 				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Profile not found"));
+		// The principal is rebuilt from token claims and lacks the password hash, so update the stored row.
+		user = userRepository.findById(user.getId())
+				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
 		user.setName(request.getName());
 		profile.setPhone(request.getPhone());
 		profile.setGender(request.getGender());
@@ -1,67 +1,107 @@
-
 package com.yfdecor.service;
 
 import com.yfdecor.dto.response.ProductResponse;
 import com.yfdecor.dto.response.WishlistItemResponse;
-import com.yfdecor.model.Product;
 import com.yfdecor.model.User;
-import com.yfdecor.model.WishlistItem;
-import com.yfdecor.repository.ProductRepository;
+import com.yfdecor.repository.WishlistJdbcRepository;
 import com.yfdecor.repository.WishlistRepository;
-import lombok.RequiredArgsConstructor;
+import com.yfdecor.wishlist.LongHashSet;
+import com.yfdecor.wishlist.WishlistEntry;
+import com.yfdecor.wishlist.WishlistMembershipCache;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 public class WishlistService {
 
 	private final WishlistRepository wishlistRepository;
-	private final ProductRepository productRepository;
+	private final WishlistJdbcRepository wishlistJdbcRepository;
+	private final WishlistMembershipCache membershipCache;
+	private final ProductService productService;
+	private final int maxMembershipIds;
+
+	public WishlistService(WishlistRepository wishlistRepository, WishlistJdbcRepository wishlistJdbcRepository,
+			WishlistMembershipCache membershipCache, ProductService productService,
+			@Value("${wishlist.membership.max-ids:500}") int maxMembershipIds) {
+		this.wishlistRepository = wishlistRepository;
+		this.wishlistJdbcRepository = wishlistJdbcRepository;
+		this.membershipCache = membershipCache;
+		this.productService = productService;
+		this.maxMembershipIds = maxMembershipIds;
+	}
 
+	/**
+	 * Reads (id, product id) pairs only and takes the products from the catalog cache, oldest
+	 * first. The ids read here also refresh the user's membership set.
+	 */
+	@Transactional
 	public List<WishlistItemResponse> getWishlist(User user) {
-		return wishlistRepository.findByUser(user).stream()
-				.map(this::toResponse)
-				.collect(Collectors.toList());
+		long gen = membershipCache.generation();
+		List<WishlistEntry> entries = wishlistRepository.findEntriesByUserId(user.getId());
+		membershipCache.put(user.getId(),
+				LongHashSet.of(entries.stream().mapToLong(WishlistEntry::getProductId).toArray()), gen);
+
+		Map<Long, ProductResponse> products = productService.getProductsByIds(
+						entries.stream().map(WishlistEntry::getProductId).collect(Collectors.toList()))
+				.stream()
+				.collect(Collectors.toMap(ProductResponse::getId, Function.identity()));
+		List<WishlistItemResponse> items = new ArrayList<>(entries.size());
+		for (WishlistEntry entry : entries) {
+			ProductResponse product = products.get(entry.getProductId());
+			if (product != null) {
+				items.add(WishlistItemResponse.builder().id(entry.getId()).product(product).build());
+			}
+		}
+		return items;
+	}
+
+	/**
+	 * Which of the given products the user has wishlisted, in request order.
+	 */
+	public Map<Long, Boolean> getMembership(User user, List<Long> productIds) {
+		if (productIds.size() > maxMembershipIds) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"At most " + maxMembershipIds + " product ids can be checked at once");
+		}
+		LongHashSet wishlisted = membershipOf(user);
+		Map<Long, Boolean> membership = new LinkedHashMap<>();
+		for (Long productId : productIds) {
+			if (productId != null) {
+				membership.put(productId, wishlisted.contains(productId));
+			}
+		}
+		return membership;
 	}
 
 	public WishlistItemResponse addToWishlist(User user, Long productId) {
-		Product product = productRepository.findById(productId)
-				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found"));
-		Optional<WishlistItem> existing = wishlistRepository.findByUserAndProduct(user, product);
-		if (existing.isPresent()) {
+		// Existence comes from the catalog cache, which throws 404 for unknown products
+		ProductResponse product = productService.getProductById(productId);
+		if (membershipOf(user).contains(productId)) {
 			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Product already in wishlist");
 		}
-		WishlistItem item = WishlistItem.builder().user(user).product(product).build();
-		WishlistItem saved = wishlistRepository.save(item);
-		return toResponse(saved);
+		Long id = wishlistJdbcRepository.insertIgnore(user.getId(), productId)
+				.orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Product already in wishlist"));
+		membershipCache.added(user.getId(), productId);
+		return WishlistItemResponse.builder().id(id).product(product).build();
 	}
 
 	public void removeFromWishlist(User user, Long productId) {
-		Product product = productRepository.findById(productId)
-				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found"));
-		wishlistRepository.deleteByUserAndProduct(user, product);
+		wishlistJdbcRepository.delete(user.getId(), productId);
+		membershipCache.removed(user.getId(), productId);
 	}
 
-	private WishlistItemResponse toResponse(WishlistItem item) {
-		return WishlistItemResponse.builder()
-				.id(item.getId())
-				.product(ProductResponse.builder()
-						.id(item.getProduct().getId())
-						.name(item.getProduct().getName())
-						.slug(item.getProduct().getSlug())
-						.description(item.getProduct().getDescription())
-						.imageUrl(item.getProduct().getImageUrl())
-						.stock(item.getProduct().getStock())
-						.price(item.getProduct().getPrice())
-						.discount(item.getProduct().getDiscount())
-						.category(null) // Optionally map category
-						.build())
-				.build();
+	private LongHashSet membershipOf(User user) {
+		return membershipCache.get(user.getId(), userId ->
+				wishlistRepository.findProductIdsByUserId(userId).stream().mapToLong(Long::longValue).toArray());
 	}
 }
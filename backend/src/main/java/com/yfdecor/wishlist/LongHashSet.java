@@ -0,0 +1,144 @@
+package com.yfdecor.wishlist;
+
+import java.util.Arrays;
+
+/**
+ * Immutable open-addressing set of primitive longs. Lookups probe a flat {@code long[]} with no
+ * boxing; {@link #with} and {@link #without} return a new set, so readers never need a lock.
+ * Slots use 0 as the empty marker and track a stored 0 separately.
+ */
+public final class LongHashSet {
+
+	private static final LongHashSet EMPTY = new LongHashSet(new long[2], false, 0);
+
+	private final long[] slots;
+	private final boolean containsZero;
+	private final int size;
+
+	private LongHashSet(long[] slots, boolean containsZero, int size) {
+		this.slots = slots;
+		this.containsZero = containsZero;
+		this.size = size;
+	}
+
+	public static LongHashSet of(long... values) {
+		if (values.length == 0) {
+			return EMPTY;
+		}
+		long[] slots = new long[capacityFor(values.length)];
+		boolean zero = false;
+		int size = 0;
+		for (long value : values) {
+			if (value == 0) {
+				if (!zero) {
+					zero = true;
+					size++;
+				}
+			} else if (insert(slots, value)) {
+				size++;
+			}
+		}
+		return new LongHashSet(slots, zero, size);
+	}
+
+	public boolean contains(long value) {
+		if (value == 0) {
+			return containsZero;
+		}
+		int mask = slots.length - 1;
+		for (int i = mix(value) & mask; ; i = (i + 1) & mask) {
+			long slot = slots[i];
+			if (slot == value) {
+				return true;
+			}
+			if (slot == 0) {
+				return false;
+			}
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public LongHashSet with(long value) {
+		if (contains(value)) {
+			return this;
+		}
+		if (value == 0) {
+			return new LongHashSet(slots, true, size + 1);
+		}
+		long[] copy = (size + 1) * 2 > slots.length ? rehash(capacityFor(size + 1)) : slots.clone();
+		insert(copy, value);
+		return new LongHashSet(copy, containsZero, size + 1);
+	}
+
+	public LongHashSet without(long value) {
+		if (!contains(value)) {
+			return this;
+		}
+		if (value == 0) {
+			return new LongHashSet(slots, false, size - 1);
+		}
+		// Rebuilding keeps probe chains intact without tombstones; wishlists are small
+		long[] copy = new long[slots.length];
+		for (long slot : slots) {
+			if (slot != 0 && slot != value) {
+				insert(copy, slot);
+			}
+		}
+		return new LongHashSet(copy, containsZero, size - 1);
+	}
+
+	public long[] toArray() {
+		long[] values = new long[size];
+		int i = 0;
+		if (containsZero) {
+			values[i++] = 0;
+		}
+		for (long slot : slots) {
+			if (slot != 0) {
+				values[i++] = slot;
+			}
+		}
+		return values;
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(toArray());
+	}
+
+	private long[] rehash(int capacity) {
+		long[] copy = new long[capacity];
+		for (long slot : slots) {
+			if (slot != 0) {
+				insert(copy, slot);
+			}
+		}
+		return copy;
+	}
+
+	private static boolean insert(long[] slots, long value) {
+		int mask = slots.length - 1;
+		for (int i = mix(value) & mask; ; i = (i + 1) & mask) {
+			if (slots[i] == value) {
+				return false;
+			}
+			if (slots[i] == 0) {
+				slots[i] = value;
+				return true;
+			}
+		}
+	}
+
+	/** Power of two with the load factor at or below one half. */
+	private static int capacityFor(int size) {
+		return Math.max(2, Integer.highestOneBit(Math.max(size, 1) * 2 - 1) << 1);
+	}
+
+	private static int mix(long value) {
+		long h = value * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+}
@@ -0,0 +1,16 @@
+package com.yfdecor.wishlist;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A wishlist row without its user and product entities.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WishlistEntry {
+	private Long id;
+	private Long productId;
+}
@@ -0,0 +1,87 @@
+package com.yfdecor.wishlist;
+
+import com.yfdecor.cache.BoundedCache;
+import com.yfdecor.dto.response.CacheStatsResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Each recently active user's wishlisted product ids as a {@link LongHashSet}, so "is this
+ * wishlisted?" for a page of tiles is a few array probes. Users are evicted least recently
+ * used first. Writes made here patch the cached set; entries are also reloaded after the TTL,
+ * which bounds staleness from writes made by other instances.
+ */
+@Component
+public class WishlistMembershipCache {
+
+	private final BoundedCache<Long, Entry> byUser;
+	private final long ttlMillis;
+	// Bumped on every write so a load that raced with it does not cache what it read
+	private final AtomicLong generation = new AtomicLong();
+
+	public WishlistMembershipCache(@Value("${wishlist.cache.max-users:10000}") int maxUsers,
+			@Value("${wishlist.cache.ttl:PT10M}") Duration ttl) {
+		this.byUser = new BoundedCache<>("wishlist.byUser", maxUsers);
+		this.ttlMillis = ttl.toMillis();
+	}
+
+	public LongHashSet get(Long userId, Function<Long, long[]> loader) {
+		Entry cached = byUser.get(userId);
+		if (cached != null && System.currentTimeMillis() - cached.loadedAt < ttlMillis) {
+			return cached.productIds;
+		}
+		long gen = generation.get();
+		LongHashSet loaded = LongHashSet.of(loader.apply(userId));
+		put(userId, loaded, gen);
+		return loaded;
+	}
+
+	/**
+	 * Caches ids the caller read itself, as long as no write happened since {@code gen}.
+	 */
+	public void put(Long userId, LongHashSet productIds, long gen) {
+		synchronized (this) {
+			if (generation.get() == gen) {
+				byUser.put(userId, new Entry(productIds, System.currentTimeMillis()));
+			}
+		}
+	}
+
+	public long generation() {
+		return generation.get();
+	}
+
+	public synchronized void added(Long userId, Long productId) {
+		generation.incrementAndGet();
+		Entry cached = byUser.get(userId);
+		if (cached != null) {
+			byUser.put(userId, new Entry(cached.productIds.with(productId), cached.loadedAt));
+		}
+	}
+
+	public synchronized void removed(Long userId, Long productId) {
+		generation.incrementAndGet();
+		Entry cached = byUser.get(userId);
+		if (cached != null) {
+			byUser.put(userId, new Entry(cached.productIds.without(productId), cached.loadedAt));
+		}
+	}
+
+	public CacheStatsResponse stats() {
+		return byUser.stats();
+	}
+
+	private static final class Entry {
+		private final LongHashSet productIds;
+		private final long loadedAt;
+
+		private Entry(LongHashSet productIds, long loadedAt) {
+			this.productIds = productIds;
+			this.loadedAt = loadedAt;
+		}
+	}
+}
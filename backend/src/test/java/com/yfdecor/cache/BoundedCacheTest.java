@@ -0,0 +1,37 @@
+package com.yfdecor.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedCacheTest {
+
+	@Test
+	void entriesExpireAfterWrite() throws InterruptedException {
+		BoundedCache<Long, String> cache = new BoundedCache<>("test", 10, Duration.ofMillis(50));
+		cache.put(1L, "one");
+		assertThat(cache.get(1L)).isEqualTo("one");
+
+		Thread.sleep(80);
+
+		assertThat(cache.get(1L)).isNull();
+		assertThat(cache.size()).isZero();
+		cache.put(1L, "again");
+		assertThat(cache.get(1L)).isEqualTo("again");
+	}
+
+	@Test
+	void withoutTtlEntriesStayUntilEvicted() {
+		BoundedCache<Long, String> cache = new BoundedCache<>("test", 2);
+		cache.put(1L, "one");
+		cache.put(2L, "two");
+		cache.get(1L);
+		cache.put(3L, "three");
+
+		assertThat(cache.get(1L)).isEqualTo("one");
+		assertThat(cache.get(2L)).isNull();
+		assertThat(cache.stats().getEvictions()).isEqualTo(1);
+	}
+}
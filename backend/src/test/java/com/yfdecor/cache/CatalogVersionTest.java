@@ -0,0 +1,70 @@
+package com.yfdecor.cache;
+
+import com.yfdecor.event.CatalogChangedEvent;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two versions over one database stand in for two instances behind a load balancer.
+ */
+class CatalogVersionTest {
+
+	private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		JdbcDataSource h2 = new JdbcDataSource();
+		h2.setURL("jdbc:h2:mem:catalog-version;DB_CLOSE_DELAY=-1");
+		jdbcTemplate = new JdbcTemplate(h2);
+		jdbcTemplate.execute("create table if not exists products (id bigint primary key, updated_at timestamp(6))");
+		jdbcTemplate.execute("delete from products");
+		write(1L, START);
+		write(2L, START);
+	}
+
+	@Test
+	void instancesAndRestartsAgreeOnTheTag() {
+		String first = new CatalogVersion(jdbcTemplate, event -> { }, Duration.ofMinutes(1)).etag();
+		String second = new CatalogVersion(jdbcTemplate, event -> { }, Duration.ofMinutes(1)).etag();
+
+		assertThat(second).isEqualTo(first);
+
+		write(2L, START.plusNanos(1_000));
+		assertThat(new CatalogVersion(jdbcTemplate, event -> { }, Duration.ofMinutes(1)).etag()).isNotEqualTo(first);
+	}
+
+	@Test
+	void aChangeMadeElsewhereIsPublishedBeforeTheNewTag() {
+		List<CatalogChangedEvent> events = new ArrayList<>();
+		CatalogVersion[] local = new CatalogVersion[1];
+		local[0] = new CatalogVersion(jdbcTemplate, event -> {
+			events.add((CatalogChangedEvent) event);
+			local[0].onCatalogChanged((CatalogChangedEvent) event);
+		}, Duration.ZERO);
+		String before = local[0].etag();
+
+		write(3L, START.plusSeconds(1));
+		String after = local[0].etag();
+
+		assertThat(after).isNotEqualTo(before);
+		assertThat(events).singleElement().satisfies(event -> assertThat(event.getProductIds()).contains(3L));
+		assertThat(local[0].etag()).isEqualTo(after);
+		assertThat(events).hasSize(1);
+	}
+
+	private void write(Long id, LocalDateTime updatedAt) {
+		jdbcTemplate.update("merge into products (id, updated_at) key (id) values (?, ?)", id, Timestamp.valueOf(updatedAt));
+	}
+}
@@ -0,0 +1,91 @@
+package com.yfdecor.config;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the data source wiring against two H2 databases standing in for the primary and
+ * the replica, each holding a row that names it, to check where transactions are routed.
+ */
+@SpringBootTest(classes = DataSourceConfig.class, properties = {
+        "spring.datasource.url=" + DataSourceConfigTest.PRIMARY_URL,
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.replica.url=" + DataSourceConfigTest.REPLICA_URL,
+        "spring.datasource.replica.driver-class-name=org.h2.Driver",
+        "spring.datasource.replica.username=sa"
+})
+@ImportAutoConfiguration({DataSourceAutoConfiguration.class, DataSourceTransactionManagerAutoConfiguration.class,
+        JdbcTemplateAutoConfiguration.class, TransactionAutoConfiguration.class})
+class DataSourceConfigTest {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeAll
+    static void createDatabases() throws SQLException {
+        nameDatabase(PRIMARY_URL, "primary");
+        nameDatabase(REPLICA_URL, "replica");
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplica() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        String database = readOnly.execute(status -> currentDatabase());
+
+        assertThat(database).isEqualTo("replica");
+    }
+
+    @Test
+    void readWriteTransactionsUseThePrimary() {
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+
+        String database = readWrite.execute(status -> currentDatabase());
+
+        assertThat(database).isEqualTo("primary");
+    }
+
+    @Test
+    void workOutsideATransactionUsesThePrimary() {
+        assertThat(currentDatabase()).isEqualTo("primary");
+    }
+
+    private String currentDatabase() {
+        return jdbcTemplate.queryForObject("select name from node", String.class);
+    }
+
+    private static void nameDatabase(String url, String name) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("create table if not exists node (name varchar(16))");
+            statement.execute("delete from node");
+            statement.execute("insert into node values ('" + name + "')");
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.yfdecor.inventory;
+
+import com.yfdecor.cache.ProductStock;
+import com.yfdecor.event.CatalogChangedEvent;
+import com.yfdecor.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Many threads fight over two hot products while catalog refreshes re-read stock underneath
+ * them. A confirmed reservation is "committed" by decrementing the simulated database stock
+ * without any check, so if the counters ever promised more than existed the database would
+ * go negative.
+ */
+class StockReservationServiceStressTest {
+
+	private static final int THREADS = 32;
+	private static final int INITIAL_STOCK = 5_000;
+	private static final long HOT = 1L;
+	private static final long WARM = 2L;
+
+	@Test
+	void neverPromisesMoreThanTheDatabaseHolds() throws Exception {
+		Map<Long, AtomicInteger> database = Map.of(
+				HOT, new AtomicInteger(INITIAL_STOCK),
+				WARM, new AtomicInteger(INITIAL_STOCK));
+		ProductRepository productRepository = mock(ProductRepository.class);
+		when(productRepository.findStockByIdIn(anyCollection())).thenAnswer(invocation -> {
+			List<Long> rows = List.copyOf(invocation.<Collection<Long>>getArgument(0));
+			return rows.stream().map(id -> new ProductStock(id, 1L, database.get(id).get())).toList();
+		});
+		StockReservationService service = new StockReservationService(productRepository, Duration.ofMinutes(5));
+
+		AtomicLong reserved = new AtomicLong();
+		AtomicLong rejected = new AtomicLong();
+		AtomicInteger lowestStock = new AtomicInteger(INITIAL_STOCK);
+		CountDownLatch start = new CountDownLatch(1);
+		CountDownLatch finished = new CountDownLatch(THREADS);
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS + 1);
+
+		for (int t = 0; t < THREADS; t++) {
+			pool.submit(() -> {
+				start.await();
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				long user = Thread.currentThread().getId();
+				// Each thread keeps one reservation open while taking the next, so refreshes land on live holds
+				StockReservation open = null;
+				// Every order takes HOT, so the run is over once it has sold out
+				while (database.get(HOT).get() > 0) {
+					Map<Long, Integer> quantities = random.nextBoolean()
+							? Map.of(HOT, 1 + random.nextInt(3))
+							: Map.of(HOT, 1 + random.nextInt(3), WARM, 1 + random.nextInt(2));
+					StockReservation next = null;
+					try {
+						next = service.reserve(user, quantities);
+						reserved.incrementAndGet();
+					} catch (ResponseStatusException e) {
+						rejected.incrementAndGet();
+					}
+					if (open != null) {
+						settle(service, database, open, random.nextInt(4) != 0, lowestStock);
+					}
+					open = next;
+				}
+				if (open != null) {
+					settle(service, database, open, false, lowestStock);
+				}
+				finished.countDown();
+				return null;
+			});
+		}
+		// Stray refreshes, e.g. from other writers, racing with the checkouts
+		pool.submit(() -> {
+			start.await();
+			while (finished.getCount() > 0) {
+				service.onCatalogChanged(CatalogChangedEvent.product(HOT));
+				Thread.onSpinWait();
+			}
+			return null;
+		});
+
+		long started = System.nanoTime();
+		start.countDown();
+		pool.shutdown();
+		assertThat(pool.awaitTermination(60, TimeUnit.SECONDS)).isTrue();
+		double seconds = (System.nanoTime() - started) / 1e9;
+
+		System.out.printf("Stock reservations: %d reserved, %d rejected in %.2f s (%.0f ops/s) on %d threads%n",
+				reserved.get(), rejected.get(), seconds, (reserved.get() + rejected.get()) / seconds, THREADS);
+		assertThat(lowestStock.get()).isGreaterThanOrEqualTo(0);
+		assertThat(database.get(HOT).get()).isZero();
+		assertThat(service.available(HOT)).isEqualTo(database.get(HOT).get());
+		assertThat(service.available(WARM)).isEqualTo(database.get(WARM).get());
+	}
+
+	private static void settle(StockReservationService service, Map<Long, AtomicInteger> database,
+			StockReservation reservation, boolean commit, AtomicInteger lowestStock) {
+		if (!commit) {
+			service.release(reservation);
+			return;
+		}
+		// The order commits: the stock leaves the database unconditionally
+		reservation.getQuantities().forEach((id, quantity) ->
+				lowestStock.accumulateAndGet(database.get(id).addAndGet(-quantity), Math::min));
+		service.confirm(reservation);
+		service.onCatalogChanged(CatalogChangedEvent.products(reservation.getQuantities().keySet()));
+	}
+
+	@Test
+	void reservationsAreAllOrNothing() {
+		ProductRepository productRepository = mock(ProductRepository.class);
+		when(productRepository.findStockByIdIn(anyCollection()))
+				.thenReturn(List.of(new ProductStock(HOT, 1L, 5), new ProductStock(WARM, 1L, 1)));
+		StockReservationService service = new StockReservationService(productRepository, Duration.ofMinutes(5));
+
+		try {
+			service.reserve(1L, Map.of(HOT, 3, WARM, 2));
+		} catch (ResponseStatusException expected) {
+			// WARM only has one left
+		}
+		assertThat(service.available(HOT)).isEqualTo(5);
+		assertThat(service.available(WARM)).isEqualTo(1);
+
+		StockReservation reservation = service.reserve(1L, Map.of(HOT, 3, WARM, 1));
+		assertThat(service.available(HOT)).isEqualTo(2);
+		service.release(reservation);
+		service.release(reservation);
+		assertThat(service.available(HOT)).isEqualTo(5);
+		assertThat(service.available(WARM)).isEqualTo(1);
+	}
+
+	@Test
+	void aReservationIsClaimedByOneCheckoutOnly() {
+		ProductRepository productRepository = mock(ProductRepository.class);
+		when(productRepository.findStockByIdIn(anyCollection())).thenReturn(List.of(new ProductStock(HOT, 1L, 5)));
+		StockReservationService service = new StockReservationService(productRepository, Duration.ofMinutes(5));
+		StockReservation reservation = service.reserve(1L, Map.of(HOT, 2));
+
+		assertThat(service.claim(reservation.getId(), 1L, Map.of(HOT, 2))).isSameAs(reservation);
+		assertThatThrownBy(() -> service.claim(reservation.getId(), 1L, Map.of(HOT, 2)))
+				.isInstanceOf(ResponseStatusException.class)
+				.hasMessageContaining("already being checked out");
+		assertThat(service.available(HOT)).isEqualTo(3);
+	}
+
+	@Test
+	void aChangedCartMustBeReservedAgain() {
+		ProductRepository productRepository = mock(ProductRepository.class);
+		when(productRepository.findStockByIdIn(anyCollection())).thenReturn(List.of(new ProductStock(HOT, 1L, 5)));
+		StockReservationService service = new StockReservationService(productRepository, Duration.ofMinutes(5));
+		StockReservation reservation = service.reserve(1L, Map.of(HOT, 2));
+
+		assertThatThrownBy(() -> service.claim(reservation.getId(), 1L, Map.of(HOT, 3)))
+				.isInstanceOf(ResponseStatusException.class)
+				.hasMessageContaining("Cart changed");
+		assertThat(service.available(HOT)).isEqualTo(5);
+	}
+}
@@ -0,0 +1,84 @@
+package com.yfdecor.monitoring;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * JdbcTemplate work never passes through Hibernate, so it has to be counted at the
+ * DataSource for the per-request statement metrics to be complete.
+ */
+class RequestStatsDataSourceTest {
+
+	private RequestStatsDataSource dataSource;
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		JdbcDataSource h2 = new JdbcDataSource();
+		h2.setURL("jdbc:h2:mem:request-stats;DB_CLOSE_DELAY=-1");
+		dataSource = new RequestStatsDataSource(h2);
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("create table if not exists items (id bigint primary key, qty int)");
+		jdbcTemplate.execute("delete from items");
+	}
+
+	@AfterEach
+	void tearDown() {
+		RequestStats.end();
+	}
+
+	@Test
+	void countsJdbcTemplateStatementsAndBatches() {
+		RequestStats stats = RequestStats.begin();
+
+		jdbcTemplate.update("insert into items (id, qty) values (?, ?)", 1L, 1);
+		jdbcTemplate.batchUpdate("insert into items (id, qty) values (?, ?)",
+				List.of(new Object[]{2L, 2}, new Object[]{3L, 3}, new Object[]{4L, 4}));
+		Integer total = jdbcTemplate.queryForObject("select sum(qty) from items", Integer.class);
+
+		assertThat(total).isEqualTo(10);
+		assertThat(stats.getStatements()).isEqualTo(3);
+		assertThat(stats.getJdbcNanos()).isPositive();
+	}
+
+	@Test
+	void timesPoolCheckoutsBehindTheLazyProxy() {
+		LazyConnectionDataSourceProxy lazy = new LazyConnectionDataSourceProxy(dataSource);
+		lazy.checkDefaultConnectionProperties();
+		TransactionTemplate transactions = new TransactionTemplate(new DataSourceTransactionManager(lazy));
+		JdbcTemplate lazyTemplate = new JdbcTemplate(lazy);
+		RequestStats stats = RequestStats.begin();
+
+		transactions.executeWithoutResult(status -> {
+		});
+		assertThat(stats.getConnectionAcquisitions()).isZero();
+
+		transactions.executeWithoutResult(status -> {
+			lazyTemplate.update("insert into items (id, qty) values (?, ?)", 1L, 1);
+			lazyTemplate.update("insert into items (id, qty) values (?, ?)", 2L, 2);
+		});
+		assertThat(stats.getConnectionAcquisitions()).isEqualTo(1);
+		assertThat(stats.getConnectionWaitNanos()).isPositive();
+	}
+
+	@Test
+	void ignoresWorkAfterTheRequestEnds() {
+		RequestStats stats = RequestStats.begin();
+		jdbcTemplate.update("insert into items (id, qty) values (?, ?)", 1L, 1);
+		RequestStats.end();
+
+		jdbcTemplate.update("insert into items (id, qty) values (?, ?)", 2L, 2);
+
+		assertThat(stats.getStatements()).isEqualTo(1);
+	}
+}
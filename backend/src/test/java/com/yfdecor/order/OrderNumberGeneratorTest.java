@@ -0,0 +1,113 @@
+package com.yfdecor.order;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderNumberGeneratorTest {
+
+	private static final long NODE_ID = 7;
+	private static final long START = OrderNumberGenerator.EPOCH_MILLIS + 1_000_000;
+
+	@Test
+	void concurrentCallersGetUniqueIdsInIssueOrder() throws Exception {
+		OrderNumberGenerator generator = new OrderNumberGenerator(NODE_ID, System::currentTimeMillis);
+		int threads = 16;
+		int perThread = 50_000;
+		Set<Long> ids = ConcurrentHashMap.newKeySet();
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Boolean>> results = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				results.add(pool.submit(() -> {
+					long last = -1;
+					boolean increasing = true;
+					for (int i = 0; i < perThread; i++) {
+						long id = generator.nextId();
+						increasing &= id > last;
+						last = id;
+						ids.add(id);
+					}
+					return increasing;
+				}));
+			}
+			for (Future<Boolean> result : results) {
+				assertThat(result.get()).isTrue();
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		assertThat(ids).hasSize(threads * perThread);
+		assertThat(ids).allSatisfy(id -> assertThat(nodeOf(id)).isEqualTo(NODE_ID));
+	}
+
+	@Test
+	void neverIssuesATimestampAheadOfTheClock() {
+		// The clock ticks once every 10,000 reads, so most milliseconds exhaust their sequence.
+		AtomicLong reads = new AtomicLong();
+		AtomicLong lastRead = new AtomicLong();
+		LongSupplier clock = () -> {
+			lastRead.set(START + reads.getAndIncrement() / 10_000);
+			return lastRead.get();
+		};
+		OrderNumberGenerator generator = new OrderNumberGenerator(NODE_ID, clock);
+
+		long last = -1;
+		for (int i = 0; i < 20_000; i++) {
+			long id = generator.nextId();
+			assertThat(id).isGreaterThan(last);
+			assertThat(timestampOf(id)).isLessThanOrEqualTo(lastRead.get());
+			last = id;
+		}
+	}
+
+	@Test
+	void waitsOutABackwardsClockStep() {
+		long[] readings = {START + 5, START, START + 2, START + 6};
+		AtomicLong reads = new AtomicLong();
+		LongSupplier clock = () -> readings[(int) Math.min(reads.getAndIncrement(), readings.length - 1)];
+		OrderNumberGenerator generator = new OrderNumberGenerator(NODE_ID, clock);
+
+		long first = generator.nextId();
+		long second = generator.nextId();
+
+		assertThat(timestampOf(first)).isEqualTo(START + 5);
+		assertThat(timestampOf(second)).isEqualTo(START + 6);
+	}
+
+	@Test
+	void requiresAConfiguredNodeId() {
+		assertThatThrownBy(() -> new OrderNumberGenerator((Long) null))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("order.number.node-id");
+		assertThatThrownBy(() -> new OrderNumberGenerator(OrderNumberGenerator.MAX_NODE_ID + 1))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void rendersAsPrefixedBase36() {
+		OrderNumberGenerator generator = new OrderNumberGenerator(NODE_ID, () -> START);
+
+		assertThat(generator.nextOrderNumber()).matches("YF[0-9A-Z]+");
+	}
+
+	private static long timestampOf(long id) {
+		return (id >>> (OrderNumberGenerator.NODE_BITS + OrderNumberGenerator.SEQUENCE_BITS))
+				+ OrderNumberGenerator.EPOCH_MILLIS;
+	}
+
+	private static long nodeOf(long id) {
+		return (id >>> OrderNumberGenerator.SEQUENCE_BITS) & OrderNumberGenerator.MAX_NODE_ID;
+	}
+}
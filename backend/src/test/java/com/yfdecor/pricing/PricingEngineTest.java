@@ -0,0 +1,93 @@
+package com.yfdecor.pricing;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Property checks over randomly generated carts: whatever the mix of prices, discounts and
+ * quantities, the engine must agree with the same rules worked out in BigDecimal, and the
+ * stored line prices plus the promotion must add up to the order total.
+ */
+class PricingEngineTest {
+
+	private static final long SEED = 20240101L;
+	private static final int CARTS = 10_000;
+
+	@Test
+	void totalsMatchExactArithmetic() {
+		Random random = new Random(SEED);
+		for (int cart = 0; cart < CARTS; cart++) {
+			double percentOff = random.nextInt(5001) / 100.0;
+			double minimum = random.nextInt(200_000) / 100.0;
+			double freeThreshold = random.nextInt(300_000) / 100.0;
+			double charge = random.nextInt(20_000) / 100.0;
+			PricingEngine engine = new PricingEngine(List.of(new ProductDiscountRule(),
+					new OrderPercentPromotionRule(percentOff, minimum), new DeliveryChargeRule(freeThreshold, charge)));
+
+			int lines = 1 + random.nextInt(12);
+			double[] prices = new double[lines];
+			double[] discounts = new double[lines];
+			int[] quantities = new int[lines];
+			PriceSheet sheet = new PriceSheet(lines);
+			for (int line = 0; line < lines; line++) {
+				prices[line] = random.nextInt(5_000_000) / 100.0;
+				discounts[line] = (random.nextInt(5_200_000) - 100_000) / 100.0;
+				quantities[line] = 1 + random.nextInt(20);
+				sheet.addLine(Money.toCents(prices[line]), Money.toCents(discounts[line]), quantities[line]);
+			}
+			engine.price(sheet);
+
+			BigDecimal subtotal = BigDecimal.ZERO;
+			for (int line = 0; line < lines; line++) {
+				BigDecimal price = new BigDecimal(Double.toString(prices[line]));
+				BigDecimal discount = new BigDecimal(Double.toString(discounts[line])).max(BigDecimal.ZERO).min(price);
+				subtotal = subtotal.add(price.subtract(discount).multiply(BigDecimal.valueOf(quantities[line])));
+			}
+			BigDecimal promotion = BigDecimal.ZERO;
+			if (percentOff > 0 && subtotal.compareTo(new BigDecimal(Double.toString(minimum))) >= 0) {
+				promotion = subtotal.multiply(new BigDecimal(Double.toString(percentOff)))
+						.movePointLeft(2).setScale(2, RoundingMode.DOWN);
+			}
+			BigDecimal items = subtotal.subtract(promotion);
+			BigDecimal delivery = items.compareTo(new BigDecimal(Double.toString(freeThreshold))) >= 0
+					? BigDecimal.ZERO : new BigDecimal(Double.toString(charge));
+
+			assertThat(sheet.getPromotionTotal()).isEqualTo(cents(promotion));
+			assertThat(sheet.getItemsTotal()).isEqualTo(cents(items));
+			assertThat(sheet.getDeliveryCharge()).isEqualTo(cents(delivery));
+			assertThat(sheet.getGrandTotal()).isEqualTo(cents(items.add(delivery)));
+
+			long stored = 0;
+			for (int line = 0; line < lines; line++) {
+				assertThat(sheet.unitNetPrice(line)).isBetween(0L, sheet.unitPrice(line));
+				stored += Money.toCents(Money.toAmount(sheet.unitNetPrice(line))) * quantities[line];
+			}
+			assertThat(stored - sheet.getPromotionTotal()).isEqualTo(sheet.getItemsTotal());
+		}
+	}
+
+	@Test
+	void toCentsRoundsHalfUp() {
+		assertThat(Money.toCents(1.005)).isEqualTo(101);
+		assertThat(Money.toCents(2.675)).isEqualTo(268);
+		assertThat(Money.toCents(0.125)).isEqualTo(13);
+		assertThat(Money.toCents(null)).isZero();
+
+		Random random = new Random(SEED);
+		for (int i = 0; i < CARTS; i++) {
+			BigDecimal amount = BigDecimal.valueOf(random.nextInt(100_000_000), 3);
+			long expected = amount.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+			assertThat(Money.toCents(amount.doubleValue())).as("%s", amount).isEqualTo(expected);
+		}
+	}
+
+	private static long cents(BigDecimal amount) {
+		return amount.movePointRight(2).longValueExact();
+	}
+}
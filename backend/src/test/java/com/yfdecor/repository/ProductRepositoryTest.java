@@ -0,0 +1,126 @@
+package com.yfdecor.repository;
+
+import com.yfdecor.model.Category;
+import com.yfdecor.model.Product;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards against the category N+1 coming back: every listing and lookup must load its
+ * products together with their category, however many rows the page holds.
+ */
+@DataJpaTest(showSql = false)
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ProductRepositoryTest {
+
+	private static final int PRODUCTS = 30;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+	private Category canvas;
+
+	@BeforeEach
+	void setUp() {
+		canvas = entityManager.persist(Category.builder().name("Canvas").slug("canvas").build());
+		Category frames = entityManager.persist(Category.builder().name("Frames").slug("frames").build());
+		for (int i = 0; i < PRODUCTS; i++) {
+			entityManager.persist(Product.builder()
+					.name("Print " + i)
+					.slug("print-" + i)
+					.category(i % 2 == 0 ? canvas : frames)
+					.stock(i)
+					.price(100.0 + i)
+					.build());
+		}
+		// Start every test from an empty persistence context so categories must come from the queries
+		entityManager.flush();
+		entityManager.clear();
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void pagedListingLoadsCategoriesWithTheProducts() {
+		Page<Product> page = productRepository.findAll(PageRequest.of(0, 20));
+
+		assertThat(categoryNames(page.getContent())).hasSize(20).doesNotContainNull();
+		// One select for the page and one for the total count
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+	}
+
+	@Test
+	void categoryListingLoadsCategoriesWithTheProducts() {
+		Page<Product> page = productRepository.findByCategory(canvas, PageRequest.of(0, 10));
+
+		assertThat(categoryNames(page.getContent())).hasSize(10).containsOnly("Canvas");
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+	}
+
+	@Test
+	void nameSearchLoadsCategoriesWithTheProducts() {
+		Page<Product> page = productRepository.findByNameContainingIgnoreCase("print", PageRequest.of(0, 20));
+
+		assertThat(categoryNames(page.getContent())).hasSize(20);
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+	}
+
+	@Test
+	void keysetPagesAreASingleStatement() {
+		List<Product> byId = productRepository.findPageAfterId(null, 0L, PageRequest.of(0, 20));
+		assertThat(categoryNames(byId)).hasSize(20);
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+		List<Product> byPrice = productRepository.findPageAfterPrice(canvas.getId(), -Double.MAX_VALUE, 0L,
+				PageRequest.of(0, 10));
+		assertThat(categoryNames(byPrice)).hasSize(10);
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+	}
+
+	@Test
+	void lookupsAreASingleStatement() {
+		Product bySlug = productRepository.findBySlug("print-3").orElseThrow();
+		assertThat(bySlug.getCategory().getName()).isEqualTo("Frames");
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+		entityManager.clear();
+		List<Long> ids = productRepository.findAll().stream().map(Product::getId).limit(15).toList();
+		entityManager.clear();
+		statistics.clear();
+
+		assertThat(categoryNames(productRepository.findAllById(ids))).hasSize(15);
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+		entityManager.clear();
+		Product byId = productRepository.findById(ids.get(0)).orElseThrow();
+		assertThat(byId.getCategory().getName()).isNotNull();
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+	}
+
+	private static List<String> categoryNames(List<Product> products) {
+		return products.stream().map(product -> product.getCategory().getName()).collect(Collectors.toList());
+	}
+}
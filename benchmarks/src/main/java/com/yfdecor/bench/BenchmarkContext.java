@@ -0,0 +1,115 @@
+package com.yfdecor.bench;
+
+import com.yfdecor.DecorApplication;
+import com.yfdecor.model.Address;
+import com.yfdecor.model.Category;
+import com.yfdecor.model.Product;
+import com.yfdecor.model.User;
+import com.yfdecor.repository.AddressRepository;
+import com.yfdecor.repository.CategoryRepository;
+import com.yfdecor.repository.ProductRepository;
+import com.yfdecor.repository.UserRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Boots the backend against an in-memory H2 database and seeds catalog and user data.
+ * Passed as command-line arguments so they take precedence over application.properties.
+ */
+public final class BenchmarkContext {
+
+	private static final String[] ARGS = {
+			"--spring.main.web-application-type=none",
+			"--spring.main.banner-mode=off",
+			"--spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+			"--spring.datasource.driver-class-name=org.h2.Driver",
+			"--spring.datasource.username=sa",
+			"--spring.datasource.password=",
+			"--spring.jpa.hibernate.ddl-auto=create-drop",
+			"--spring.jpa.show-sql=false",
+			"--spring.jpa.properties.hibernate.format_sql=false",
+			"--auth.password.cost=4",
+			"--auth.token.secret=" + randomKey(),
+			"--order.number.node-id=1",
+			"--logging.level.root=WARN"
+	};
+
+	private final ConfigurableApplicationContext context;
+
+	private BenchmarkContext(ConfigurableApplicationContext context) {
+		this.context = context;
+	}
+
+	private static String randomKey() {
+		byte[] key = new byte[32];
+		new SecureRandom().nextBytes(key);
+		return Base64.getEncoder().encodeToString(key);
+	}
+
+	public static BenchmarkContext start() {
+		return new BenchmarkContext(new SpringApplicationBuilder(DecorApplication.class).run(ARGS));
+	}
+
+	public <T> T bean(Class<T> type) {
+		return context.getBean(type);
+	}
+
+	public void publish(Object event) {
+		context.publishEvent(event);
+	}
+
+	public void close() {
+		context.close();
+	}
+
+	public List<Product> seedProducts(int count) {
+		Category category = bean(CategoryRepository.class).save(Category.builder()
+				.name("Bench " + UUID.randomUUID())
+				.slug("bench-" + UUID.randomUUID())
+				.description("Benchmark category")
+				.build());
+		List<Product> products = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			products.add(Product.builder()
+					.name("Canvas print " + i)
+					.slug("canvas-print-" + UUID.randomUUID())
+					.description("Framed canvas wall art number " + i)
+					.imageUrl("/images/" + i + ".jpg")
+					.category(category)
+					.stock(1_000_000_000)
+					.price(499.0 + i)
+					.discount(i % 3 == 0 ? 50.0 : 0.0)
+					.build());
+		}
+		return bean(ProductRepository.class).saveAll(products);
+	}
+
+	public User seedUser() {
+		return bean(UserRepository.class).save(User.builder()
+				.email("bench-" + UUID.randomUUID() + "@example.com")
+				.name("Bench User")
+				.password("{noop}unused")
+				.role("USER")
+				.build());
+	}
+
+	public Address seedAddress(User user) {
+		return bean(AddressRepository.class).save(Address.builder()
+				.user(user)
+				.name("Bench User")
+				.phone("9999999999")
+				.addressLine1("1 Benchmark Road")
+				.city("Pune")
+				.state("MH")
+				.country("India")
+				.zipCode("411001")
+				.isDefault(true)
+				.build());
+	}
+}
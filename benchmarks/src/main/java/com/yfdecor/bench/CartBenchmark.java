@@ -0,0 +1,73 @@
+package com.yfdecor.bench;
+
+import com.yfdecor.dto.request.CartItemRequest;
+import com.yfdecor.dto.response.CartItemResponse;
+import com.yfdecor.model.Product;
+import com.yfdecor.model.User;
+import com.yfdecor.service.CartService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CartService} write paths: single add and guest-cart merge by guest cart size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartBenchmark {
+
+	@Param({"1", "10", "50"})
+	private int guestCartSize;
+
+	private BenchmarkContext context;
+	private CartService cartService;
+	private User user;
+	private CartItemRequest addRequest;
+	private List<CartItemRequest> guestCart;
+
+	@Setup
+	public void setUp() {
+		context = BenchmarkContext.start();
+		cartService = context.bean(CartService.class);
+		List<Product> products = context.seedProducts(guestCartSize);
+		user = context.seedUser();
+
+		addRequest = new CartItemRequest();
+		addRequest.setProductId(products.get(0).getId());
+		addRequest.setQuantity(1);
+
+		guestCart = new ArrayList<>(products.size());
+		for (Product product : products) {
+			CartItemRequest line = new CartItemRequest();
+			line.setProductId(product.getId());
+			line.setQuantity(1);
+			guestCart.add(line);
+		}
+	}
+
+	@Setup(Level.Invocation)
+	public void emptyCart() {
+		cartService.clearCart(user);
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public CartItemResponse addToCart() {
+		return cartService.addToCart(user, addRequest);
+	}
+
+	@Benchmark
+	public List<CartItemResponse> mergeGuestCart() {
+		return cartService.mergeCart(user, guestCart);
+	}
+}
@@ -0,0 +1,77 @@
+package com.yfdecor.bench;
+
+import com.yfdecor.dto.response.ProductFacetResponse;
+import com.yfdecor.dto.response.ProductResponse;
+import com.yfdecor.event.CatalogChangedEvent;
+import com.yfdecor.model.Product;
+import com.yfdecor.search.ProductFacetQuery;
+import com.yfdecor.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Catalog read paths with a warm cache and with the cache dropped before every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogReadBenchmark {
+
+	private BenchmarkContext context;
+	private ProductService productService;
+	private Long productId;
+
+	@Setup
+	public void setUp() {
+		context = BenchmarkContext.start();
+		productService = context.bean(ProductService.class);
+		List<Product> products = context.seedProducts(200);
+		productId = products.get(products.size() / 2).getId();
+		context.publish(CatalogChangedEvent.all());
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public ProductResponse productByIdCached() {
+		return productService.getProductById(productId);
+	}
+
+	@Benchmark
+	public ProductResponse productByIdUncached() {
+		context.publish(CatalogChangedEvent.product(productId));
+		return productService.getProductById(productId);
+	}
+
+	@Benchmark
+	public List<ProductResponse> firstPageCached() {
+		return productService.getAllProducts(Optional.empty(), Optional.empty(), 1, 20);
+	}
+
+	@Benchmark
+	public List<ProductResponse> search() {
+		return productService.getAllProducts(Optional.empty(), Optional.of("canvas print"), 1, 20);
+	}
+
+	@Benchmark
+	public ProductFacetResponse filteredWithFacets() {
+		return productService.findProducts(ProductFacetQuery.builder()
+				.text("canvas")
+				.maxPrice(1000.0)
+				.inStock(true)
+				.sort(ProductFacetQuery.SORT_PRICE)
+				.page(1)
+				.limit(20)
+				.facets(true)
+				.build());
+	}
+}
@@ -0,0 +1,105 @@
+package com.yfdecor.bench;
+
+import com.yfdecor.cart.CartStore;
+import com.yfdecor.dto.request.OrderRequest;
+import com.yfdecor.dto.response.OrderResponse;
+import com.yfdecor.model.Product;
+import com.yfdecor.model.User;
+import com.yfdecor.monitoring.RequestStats;
+import com.yfdecor.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@link OrderService#placeOrder} latency by cart size, including the stock
+ * decrement, order and item inserts and the outbox row; clearing the cart runs later from
+ * the outbox and is not measured. The statements each order issues on the calling thread
+ * are counted alongside, see {@link StatementCounters}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CheckoutBenchmark {
+
+	@Param({"1", "5", "15"})
+	private int cartSize;
+
+	private BenchmarkContext context;
+	private OrderService orderService;
+	private CartStore cartStore;
+	private Map<Long, Integer> cart;
+	private User user;
+	private OrderRequest request;
+
+	@Setup
+	public void setUp() {
+		context = BenchmarkContext.start();
+		orderService = context.bean(OrderService.class);
+		cartStore = context.bean(CartStore.class);
+		List<Product> products = context.seedProducts(cartSize);
+		cart = new LinkedHashMap<>();
+		for (Product product : products) {
+			cart.put(product.getId(), 2);
+		}
+	}
+
+	/**
+	 * Every order comes from a new shopper, so the outbox clearing an earlier order's cart
+	 * can never empty the one about to be checked out. The cart is reserved here, as the
+	 * client does when checkout starts, so only placing the order is measured.
+	 */
+	@Setup(Level.Invocation)
+	public void fillCart() {
+		user = context.seedUser();
+		request = new OrderRequest();
+		request.setAddressId(context.seedAddress(user).getId());
+		cartStore.setQuantities(user.getId(), cart);
+		request.setReservationId(orderService.reserveCart(user).getReservationId());
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public OrderResponse placeOrder(StatementCounters counters) {
+		RequestStats stats = RequestStats.begin();
+		try {
+			return orderService.placeOrder(user, request);
+		} finally {
+			counters.record(stats);
+			RequestStats.end();
+		}
+	}
+
+	/**
+	 * JMH sums these over the measurement iterations, so statements / orders is the number
+	 * of statements one checkout issues.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class StatementCounters {
+
+		public long orders;
+		public long statements;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			orders = 0;
+			statements = 0;
+		}
+
+		void record(RequestStats stats) {
+			orders++;
+			statements += stats.getStatements();
+		}
+	}
+}
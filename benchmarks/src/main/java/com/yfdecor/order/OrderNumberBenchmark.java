@@ -0,0 +1,31 @@
+package com.yfdecor.order;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order number throughput, uncontended and with several threads racing on the same CAS.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderNumberBenchmark {
+
+	private final OrderNumberGenerator generator = new OrderNumberGenerator(1L);
+
+	@Benchmark
+	@Threads(1)
+	public String generateSingleThread() {
+		return generator.nextOrderNumber();
+	}
+
+	@Benchmark
+	@Threads(4)
+	public String generateContended() {
+		return generator.nextOrderNumber();
+	}
+}
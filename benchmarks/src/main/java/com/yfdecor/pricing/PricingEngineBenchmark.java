@@ -0,0 +1,65 @@
+package com.yfdecor.pricing;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prices a whole cart through the rule chain, reusing one sheet as checkout and quotes do
+ * per request, against the old floating-point loop as a baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingEngineBenchmark {
+
+	@Param({"1", "15", "100"})
+	private int lines;
+
+	private final PricingEngine engine = new PricingEngine(List.of(
+			new ProductDiscountRule(),
+			new OrderPercentPromotionRule(10, 5000),
+			new DeliveryChargeRule(999, 99)));
+
+	private double[] prices;
+	private double[] discounts;
+	private int[] quantities;
+	private PriceSheet sheet;
+
+	@Setup
+	public void setUp() {
+		SplittableRandom random = new SplittableRandom(42);
+		prices = new double[lines];
+		discounts = new double[lines];
+		quantities = new int[lines];
+		for (int i = 0; i < lines; i++) {
+			prices[i] = random.nextInt(10_000, 1_000_000) / 100.0;
+			discounts[i] = random.nextInt(4) == 0 ? random.nextInt(0, 5_000) / 100.0 : 0;
+			quantities[i] = random.nextInt(1, 5);
+		}
+		sheet = new PriceSheet(lines);
+	}
+
+	@Benchmark
+	public long priceCart() {
+		sheet.reset();
+		for (int i = 0; i < lines; i++) {
+			sheet.addLine(Money.toCents(prices[i]), Money.toCents(discounts[i]), quantities[i]);
+		}
+		return engine.price(sheet).getGrandTotal();
+	}
+
+	@Benchmark
+	public double doubleBaseline() {
+		double total = 0;
+		for (int i = 0; i < lines; i++) {
+			total += (prices[i] - discounts[i]) * quantities[i];
+		}
+		return total + (total >= 999 ? 0 : 99);
+	}
+}
@@ -0,0 +1,59 @@
+package com.yfdecor.service;
+
+import com.yfdecor.bench.BenchmarkContext;
+import com.yfdecor.dto.response.ProductResponse;
+import com.yfdecor.model.Category;
+import com.yfdecor.model.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity-to-DTO mapping cost of {@link ProductService#toResponse}, which every catalog read
+ * on a cache miss pays per product.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductMappingBenchmark {
+
+	private BenchmarkContext context;
+	private ProductService productService;
+	private Product product;
+
+	@Setup
+	public void setUp() {
+		context = BenchmarkContext.start();
+		productService = context.bean(ProductService.class);
+		product = Product.builder()
+				.id(42L)
+				.name("Canvas Buddha")
+				.slug("canvas-buddha")
+				.description("Hand-finished canvas print")
+				.imageUrl("/images/canvas-buddha.jpg")
+				.stock(12)
+				.price(2999.0)
+				.discount(500.0)
+				.category(Category.builder()
+						.id(3L)
+						.name("Canvas")
+						.slug("canvas")
+						.description("Canvas wall art")
+						.imageUrl("/images/canvas.jpg")
+						.build())
+				.build();
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public ProductResponse toResponse() {
+		return productService.toResponse(product);
+	}
+}